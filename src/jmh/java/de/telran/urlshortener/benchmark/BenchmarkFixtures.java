@@ -0,0 +1,46 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.config.ShortUrlConfig;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Shared setup for the JMH benchmarks; values come from the application's own
+ * {@code application.properties} so benchmarks run against the shipped defaults, or against
+ * the environment variables that override them.
+ */
+final class BenchmarkFixtures {
+
+    private static final PropertyPlaceholderHelper PLACEHOLDERS = new PropertyPlaceholderHelper("${", "}", ":", true);
+
+    private BenchmarkFixtures() {
+    }
+
+    static ShortUrlConfig shortUrlConfig(ShortUrlConfig.KeyMode keyMode) {
+        ShortUrlConfig config = new ShortUrlConfig();
+        config.setAllowedCharacters(property("short-url.allowed-characters"));
+        config.setKeyLength(Integer.parseInt(property("short-url.key-length")));
+        config.setKeyMode(keyMode);
+        config.setScrambleKeys(Boolean.parseBoolean(property("short-url.scramble-keys")));
+        config.setScrambleSecret(Long.parseLong(property("short-url.scramble-secret")));
+        return config;
+    }
+
+    /**
+     * @return the property with {@code ${ENV:default}} placeholders resolved from the
+     * environment, falling back to their defaults.
+     */
+    static String property(String name) {
+        try {
+            Properties properties = PropertiesLoaderUtils.loadAllProperties("application.properties");
+            String value = properties.getProperty(name);
+            return value == null ? null : PLACEHOLDERS.replacePlaceholders(value, System::getenv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
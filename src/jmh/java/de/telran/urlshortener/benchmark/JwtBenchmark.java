@@ -0,0 +1,82 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.security.dto.Role;
+import de.telran.urlshortener.security.dto.UserDto;
+import de.telran.urlshortener.security.jwt.JwtAuthentication;
+import de.telran.urlshortener.security.jwt.JwtProvider;
+import de.telran.urlshortener.security.jwt.JwtUtils;
+import de.telran.urlshortener.security.jwt.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token verification as done by {@code JwtFilter} for every authenticated request:
+ * the old validate-then-parse sequence, the single parse, and the verified-token cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtProvider jwtProvider;
+    private String token;
+    private Claims claims;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = new JwtProvider(
+                BenchmarkFixtures.property("jwt.secret.access"),
+                BenchmarkFixtures.property("jwt.secret.refresh"));
+        token = jwtProvider.generateAccessToken(
+                new UserDto("user", "1234", "Test", "Test", Set.of(Role.USER)));
+        claims = jwtProvider.getAccessClaims(token);
+        verifiedTokenCache = new VerifiedTokenCache(jwtProvider, true, 10_000);
+    }
+
+    @Benchmark
+    public boolean validateAccessToken() {
+        return jwtProvider.validateAccessToken(token);
+    }
+
+    @Benchmark
+    public Claims getAccessClaims() {
+        return jwtProvider.getAccessClaims(token);
+    }
+
+    @Benchmark
+    public JwtAuthentication generateAuthentication() {
+        return JwtUtils.generate(claims);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseAccessClaims() {
+        return jwtProvider.parseAccessClaims(token);
+    }
+
+    /**
+     * The per-request work of {@code JwtFilter} before the verified-token cache: two parses.
+     */
+    @Benchmark
+    public JwtAuthentication validateThenParse() {
+        if (jwtProvider.validateAccessToken(token)) {
+            return JwtUtils.generate(jwtProvider.getAccessClaims(token));
+        }
+        return null;
+    }
+
+    /**
+     * The per-request work of {@code JwtFilter} for a token seen before.
+     */
+    @Benchmark
+    public JwtAuthentication cachedFilterPath() {
+        return verifiedTokenCache.authenticate(token);
+    }
+}
@@ -0,0 +1,53 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.service.KeySequenceService;
+import de.telran.urlshortener.util.SequenceKeyAllocator;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShortUrlUtil#generateUniqueKey()} in random and sequence mode.
+ * The sequence mode leases blocks from an in-memory counter instead of the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+
+    private ShortUrlUtil randomKeys;
+    private ShortUrlUtil sequenceKeys;
+
+    @Setup
+    public void setUp() {
+        randomKeys = new ShortUrlUtil(BenchmarkFixtures.shortUrlConfig(ShortUrlConfig.KeyMode.RANDOM), null);
+
+        ShortUrlConfig sequenceConfig = BenchmarkFixtures.shortUrlConfig(ShortUrlConfig.KeyMode.SEQUENCE);
+        KeySequenceService inMemorySequence = new KeySequenceService(null, null) {
+            private long next;
+
+            @Override
+            public long leaseBlock(String name, int blockSize) {
+                long start = next;
+                next += blockSize;
+                return start;
+            }
+        };
+        sequenceKeys = new ShortUrlUtil(sequenceConfig, new SequenceKeyAllocator(inMemorySequence, sequenceConfig));
+    }
+
+    @Benchmark
+    public String randomKey() {
+        return randomKeys.generateUniqueKey();
+    }
+
+    @Benchmark
+    public String sequenceKey() {
+        return sequenceKeys.generateUniqueKey();
+    }
+}
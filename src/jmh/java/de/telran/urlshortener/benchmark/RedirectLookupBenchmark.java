@@ -0,0 +1,82 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.ClickCounterConfig;
+import de.telran.urlshortener.config.KeyFilterConfig;
+import de.telran.urlshortener.config.LinkExpiryConfig;
+import de.telran.urlshortener.config.RedirectCacheConfig;
+import de.telran.urlshortener.config.ReplicaConfig;
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.config.UrlHashBackfillConfig;
+import de.telran.urlshortener.exception.ShortUrlNotFoundException;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.service.ClickCounter;
+import de.telran.urlshortener.service.UrlHashBackfill;
+import de.telran.urlshortener.service.UrlShortenerService;
+import de.telran.urlshortener.store.ShortUrlStore;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.servlet.view.RedirectView;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory part of {@link UrlShortenerService#getFullUrl}: key pre-check, expiry check,
+ * redirect cache hit and click counting, plus the reject path for malformed keys. The store is a mock
+ * that is never reached for cached keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedirectLookupBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private UrlShortenerService service;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        ShortUrlConfig config = BenchmarkFixtures.shortUrlConfig(ShortUrlConfig.KeyMode.RANDOM);
+        ShortUrlUtil util = new ShortUrlUtil(config, null);
+        RedirectCacheConfig cacheConfig = new RedirectCacheConfig();
+        RedirectCache redirectCache = new RedirectCache(cacheConfig);
+        LinkExpiryConfig expiryConfig = new LinkExpiryConfig();
+        KeyPrefilter keyPrefilter = new KeyPrefilter(null, new KeyFilterConfig(), config);
+        ClickCounter clickCounter = new ClickCounter(null, new ClickCounterConfig(), List.of());
+        ShortUrlStore store = Mockito.mock(ShortUrlStore.class);
+        service = new UrlShortenerService(store, util, config,
+                redirectCache, keyPrefilter, clickCounter, new UrlShortenerMetrics(new SimpleMeterRegistry()),
+                new ReplicaConfig(), new LinkExpiryTracker(redirectCache, cacheConfig, expiryConfig), expiryConfig,
+                new UrlHashBackfill(store, new UrlHashBackfillConfig()));
+
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = util.generateUniqueKey();
+            redirectCache.put(keys[i], new ShortUrlStore.Link("https://benchmark.example.com/" + i, null));
+        }
+    }
+
+    @Benchmark
+    public RedirectView cachedRedirect() {
+        return service.getFullUrl(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public Object rejectMalformedKey() {
+        try {
+            return service.getFullUrl("favicon.ico");
+        } catch (ShortUrlNotFoundException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.UrlShortenerApplication;
+import de.telran.urlshortener.security.config.SecurityConfig;
+import de.telran.urlshortener.security.jwt.JwtFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.MappingMatch;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletMapping;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
+
+/**
+ * Spring Security cost of one {@code GET /{key}} redirect: the dedicated redirect chain
+ * against the single full chain that redirects used to go through. Both run inside the real
+ * application context. The terminal filter chain does nothing, so only security filters are
+ * measured. Both proxies are built from the chain beans directly. This leaves out the
+ * handler-mapping cache filter that Spring wraps around every request either way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final FilterChain TERMINAL = (request, response) -> { };
+    private static final MockHttpServletMapping DISPATCHER_MAPPING =
+            new MockHttpServletMapping("", "/", "dispatcherServlet", MappingMatch.DEFAULT);
+
+    private ConfigurableApplicationContext context;
+    private ServletContext servletContext;
+    private FilterChainProxy redirectChain;
+    private FilterChainProxy fullChain;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--spring.jpa.show-sql=false");
+        servletContext = ((WebApplicationContext) context).getServletContext();
+        redirectChain = new FilterChainProxy(List.of(
+                context.getBean("redirectFilterChain", SecurityFilterChain.class),
+                context.getBean("securityFilterChain", SecurityFilterChain.class)));
+        redirectChain.afterPropertiesSet();
+        fullChain = new FilterChainProxy(fullChain(context.getBean(HttpSecurity.class),
+                context.getBean(JwtFilter.class)).build());
+        fullChain.afterPropertiesSet();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse redirectChain() throws Exception {
+        return filter(redirectChain);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fullChain() throws Exception {
+        return filter(fullChain);
+    }
+
+    private MockHttpServletResponse filter(FilterChainProxy proxy) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/aB3xYz");
+        request.setServletPath("/aB3xYz");
+        request.setHttpServletMapping(DISPATCHER_MAPPING);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, TERMINAL);
+        return response;
+    }
+
+    /**
+     * The single chain every request went through before the redirect chain was split off.
+     */
+    private static HttpSecurity fullChain(HttpSecurity http, JwtFilter jwtFilter) throws Exception {
+        return http
+                .cors(AbstractHttpConfigurer::disable)
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(
+                        auth -> auth
+                                .requestMatchers(SecurityConfig.USER_LIST).permitAll()
+                                .requestMatchers("/admin/**").hasRole(SecurityConfig.ADMIN_ROLE)
+                                .requestMatchers(HttpMethod.GET, "/*").permitAll()
+                                .anyRequest().authenticated()
+                )
+                .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
+                .addFilterAfter(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+    }
+}
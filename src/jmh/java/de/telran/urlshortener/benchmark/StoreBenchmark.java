@@ -0,0 +1,102 @@
+package de.telran.urlshortener.benchmark;
+
+import de.telran.urlshortener.UrlShortenerApplication;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.store.ShortUrlStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The storage backends side by side: lookup by key, lookup by URL digest and one flush-sized
+ * batch of click deltas. Every backend runs inside the real application context, the SQL ones
+ * on the in-memory H2 database, preloaded with {@value #MAPPINGS} mappings. Warm-up is longer
+ * than in the other benchmarks because Hibernate takes a while to reach steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+
+    private static final int MAPPINGS = 50_000;
+    private static final int INSERT_BATCH = 1000;
+    private static final int CLICK_BATCH = 100;
+
+    @Param({"memory", "mmap", "jdbc", "jpa"})
+    public String backend;
+
+    private ConfigurableApplicationContext context;
+    private Path mmapDirectory;
+    private ShortUrlStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        mmapDirectory = Files.createTempDirectory("store-benchmark");
+        context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .run("--server.port=0", "--logging.level.root=WARN", "--spring.jpa.show-sql=false",
+                        "--short-url.storage.backend=" + backend,
+                        "--short-url.storage.mmap-directory=" + mmapDirectory);
+        store = context.getBean(ShortUrlStore.class);
+
+        List<ShortUrlEntity> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < MAPPINGS; i++) {
+            batch.add(ShortUrlEntity.builder()
+                    .key(key(i))
+                    .fullUrl("https://benchmark.example.com/" + i)
+                    .fullUrlHash(hash(i))
+                    .clickCount(0L)
+                    .build());
+            if (batch.size() == INSERT_BATCH) {
+                store.insertAll(batch);
+                batch = new ArrayList<>(INSERT_BATCH);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(mmapDirectory.toFile());
+    }
+
+    @Benchmark
+    public String findFullUrl() {
+        return store.findFullUrl(key(ThreadLocalRandom.current().nextInt(MAPPINGS)));
+    }
+
+    @Benchmark
+    public String findKeyByFullUrlHash() {
+        return store.findKeyByFullUrlHash(hash(ThreadLocalRandom.current().nextInt(MAPPINGS)));
+    }
+
+    @Benchmark
+    public void applyClickDeltas() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map.Entry<String, Long>> deltas = new ArrayList<>(CLICK_BATCH);
+        for (int i = 0; i < CLICK_BATCH; i++) {
+            deltas.add(Map.entry(key(random.nextInt(MAPPINGS)), 1L));
+        }
+        store.applyClickDeltas(deltas);
+    }
+
+    private static String key(int i) {
+        return "k" + i;
+    }
+
+    private static String hash(int i) {
+        return "benchmark-hash-" + i;
+    }
+}
@@ -0,0 +1,183 @@
+package de.telran.urlshortener.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.telran.urlshortener.config.KeyFilterConfig;
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import de.telran.urlshortener.util.BloomFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap reject stage for redirect keys, consulted before any database lookup.
+ * <p>
+ * A key is rejected if its length or characters cannot have been produced by
+ * {@link ShortUrlConfig}, if the Bloom filter of existing keys says it is definitely absent,
+ * or if it was recently looked up and not found. The Bloom filter is rebuilt from the
+ * {@link ShortUrlStore} after startup and periodically, and updated on every create; until the
+ * first build completes only the syntax check applies. A rebuild scans every key, so the
+ * schedule only hands it to a thread of its own, in every threading mode, and never holds up
+ * the other scheduled jobs; a rebuild still running when the next one is due is not doubled.
+ * </p>
+ * <p>
+ * Keys created by another instance are unknown to this filter until its next rebuild. By
+ * default the rebuild interval bounds how long such keys may be answered with 404 here; with
+ * {@code storeFallback} a Bloom filter miss is looked up in the store instead, repeated misses
+ * are still answered by the negative cache, and keys found that way are added to the filter.
+ * </p>
+ */
+@Slf4j
+@Component
+public class KeyPrefilter {
+
+    private final ShortUrlStore store;
+    private final KeyFilterConfig config;
+    private final BitSet allowedCharacters = new BitSet();
+    private final int minKeyLength;
+    private final int maxKeyLength;
+    private final Cache<String, Boolean> negativeCache;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "key-filter-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    public KeyPrefilter(ShortUrlStore store, KeyFilterConfig config, ShortUrlConfig shortUrlConfig) {
+        this.store = store;
+        this.config = config;
+        shortUrlConfig.getAllowedCharacters().chars().forEach(allowedCharacters::set);
+        this.minKeyLength = shortUrlConfig.getKeyLength();
+        this.maxKeyLength = shortUrlConfig.getKeyLength() + ShortUrlConfig.MAX_EXTRA_KEY_LENGTH;
+        this.negativeCache = Caffeine.newBuilder()
+                .maximumSize(config.getNegativeCacheSize())
+                .expireAfterWrite(config.getNegativeCacheTtl())
+                .build();
+    }
+
+    /**
+     * @return false if the key certainly does not exist, true if it has to be looked up.
+     */
+    public boolean mightExist(String key) {
+        if (!isWellFormed(key)) {
+            return false;
+        }
+        if (!config.isEnabled()) {
+            return true;
+        }
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(key) && !config.isStoreFallback()) {
+            return false;
+        }
+        return negativeCache.getIfPresent(key) == null;
+    }
+
+    public boolean isWellFormed(String key) {
+        int length = key.length();
+        if (length < minKeyLength || length > maxKeyLength) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!allowedCharacters.get(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void add(String key) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(key);
+        }
+        negativeCache.invalidate(key);
+    }
+
+    /**
+     * Adds a key that was found in the store but may be missing from the filter, because
+     * another instance created it.
+     */
+    public void recordHit(String key) {
+        BloomFilter current = filter;
+        if (config.isStoreFallback() && current != null && !current.mightContain(key)) {
+            add(key);
+        }
+    }
+
+    public void recordMiss(String key) {
+        if (config.isEnabled()) {
+            negativeCache.put(key, Boolean.TRUE);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${short-url.key-filter.rebuild-interval-ms:3600000}")
+    public void scheduleRebuild() {
+        if (!config.isEnabled() || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Key filter rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            rebuilding.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the Bloom filter from the store on the calling thread.
+     */
+    public void rebuild() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        BloomFilter next = new BloomFilter(config.getExpectedKeys(), config.getFalsePositiveRate());
+        // publish before scanning so keys created meanwhile land in both filters
+        building = next;
+        AtomicLong count = new AtomicLong();
+        try {
+            store.forEachKey(key -> {
+                next.put(key);
+                count.incrementAndGet();
+            });
+            filter = next;
+            log.info("Key filter rebuilt with {} keys in {} ms", count.get(), System.currentTimeMillis() - started);
+            if (count.get() > config.getExpectedKeys()) {
+                log.warn("Key filter holds {} keys, more than the configured {}; false positives will rise",
+                        count.get(), config.getExpectedKeys());
+            }
+        } finally {
+            building = null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package de.telran.urlshortener.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.telran.urlshortener.config.LinkExpiryConfig;
+import de.telran.urlshortener.config.RedirectCacheConfig;
+import de.telran.urlshortener.util.TimingWheel;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Upcoming expiries of the links this instance holds in memory, on a {@link TimingWheel}.
+ * <p>
+ * Every expiring link that is created here or loaded into the {@link RedirectCache} is
+ * scheduled, as long as it expires before the cache entry would anyway; later expiries are
+ * seen again on the next load. Once a deadline passes, the tick evicts the key from the cache
+ * and remembers it as expired for {@code expiredKeysTtl}, so redirects for it are rejected
+ * without any lookup, typically until the purger has deleted the row. Store lookups skip
+ * expired rows and {@link RedirectCache} hits check the expiry of the cached link regardless,
+ * so a late or missed tick never serves an expired link; the wheel only frees the cache of
+ * expired entries early and answers repeated requests for them cheaply.
+ * </p>
+ */
+@Component
+public class LinkExpiryTracker {
+
+    private record Deadline(String key, long expiresAtMillis) {
+    }
+
+    private final RedirectCache redirectCache;
+    private final long horizonMillis;
+    private final TimingWheel<Deadline> wheel;
+    /**
+     * Current deadline by key, guarded by the wheel; wheel entries that no longer match are stale.
+     */
+    private final Map<String, Long> deadlines = new HashMap<>();
+    private final Cache<String, Boolean> expired;
+
+    public LinkExpiryTracker(RedirectCache redirectCache, RedirectCacheConfig cacheConfig, LinkExpiryConfig config) {
+        this.redirectCache = redirectCache;
+        this.horizonMillis = cacheConfig.getExpireAfterWrite().toMillis() + config.getTickMs();
+        this.wheel = new TimingWheel<>(config.getTickMs(), config.getWheelSize(), System.currentTimeMillis());
+        this.expired = Caffeine.newBuilder()
+                .maximumSize(config.getExpiredKeysSize())
+                .expireAfterWrite(config.getExpiredKeysTtl())
+                .build();
+    }
+
+    /**
+     * Records the lifetime of a link that was just created or loaded, which also clears an
+     * earlier expiry of the same key, as when a purged key is handed out again.
+     *
+     * @param expiresAt the end of the lifetime, or null if the link never expires.
+     */
+    public void track(String key, Instant expiresAt) {
+        if (expiresAt == null || expiresAt.toEpochMilli() - System.currentTimeMillis() > horizonMillis) {
+            forget(key);
+            return;
+        }
+        long deadline = expiresAt.toEpochMilli();
+        expired.invalidate(key);
+        synchronized (wheel) {
+            Long previous = deadlines.put(key, deadline);
+            if (previous != null && previous == deadline) {
+                return;
+            }
+            if (!wheel.add(new Deadline(key, deadline), deadline)) {
+                deadlines.remove(key);
+                expire(key);
+            }
+        }
+    }
+
+    /**
+     * @return true if the key is known to have expired, so it need not be looked up.
+     */
+    public boolean isExpired(String key) {
+        return expired.getIfPresent(key) != null;
+    }
+
+    /**
+     * Drops everything known about the key.
+     */
+    public void forget(String key) {
+        expired.invalidate(key);
+        synchronized (wheel) {
+            deadlines.remove(key);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${short-url.expiry.tick-ms:1000}")
+    public void tick() {
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), deadline -> {
+                if (deadlines.remove(deadline.key(), deadline.expiresAtMillis())) {
+                    expire(deadline.key());
+                }
+            });
+        }
+    }
+
+    public int getScheduledKeys() {
+        synchronized (wheel) {
+            return deadlines.size();
+        }
+    }
+
+    public long getExpiredKeys() {
+        return expired.estimatedSize();
+    }
+
+    private void expire(String key) {
+        expired.put(key, Boolean.TRUE);
+        redirectCache.invalidate(key);
+    }
+}
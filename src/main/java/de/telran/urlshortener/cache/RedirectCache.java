@@ -0,0 +1,89 @@
+package de.telran.urlshortener.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.telran.urlshortener.config.RedirectCacheConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of short key to link used on the redirect path.
+ * <p>
+ * Backed by Caffeine, whose W-TinyLFU admission policy keeps the frequently requested
+ * keys resident while one-hit wonders are evicted first. Misses are not cached here.
+ * Links are cached with their expiry, and a hit on an expired link is dropped and reported
+ * as a miss, so an expired link is never served from the cache however late its eviction is.
+ * </p>
+ */
+@Component
+public class RedirectCache {
+
+    private final Cache<String, ShortUrlStore.Link> cache;
+    private final boolean enabled;
+
+    public RedirectCache(RedirectCacheConfig config) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getExpireAfterWrite());
+        if (config.isRecordStats()) {
+            builder.recordStats();
+        }
+        this.cache = builder.build();
+        this.enabled = config.isEnabled();
+    }
+
+    /**
+     * Returns the cached link for the key, loading it with {@code loader} on a miss.
+     *
+     * @param key    the short key.
+     * @param loader loads the link, may return null when the key does not exist or has expired.
+     * @return the link, or null if the loader found nothing or the cached link has expired.
+     */
+    public ShortUrlStore.Link get(String key, Function<String, ShortUrlStore.Link> loader) {
+        if (!enabled) {
+            return loader.apply(key);
+        }
+        ShortUrlStore.Link link = cache.get(key, loader);
+        if (link != null && link.expiresAt() != null && link.expiresAt().toEpochMilli() <= System.currentTimeMillis()) {
+            // only this entry; a fresh link cached for a reused key meanwhile stays
+            cache.asMap().remove(key, link);
+            return null;
+        }
+        return link;
+    }
+
+    public void put(String key, ShortUrlStore.Link link) {
+        if (enabled) {
+            cache.put(key, link);
+        }
+    }
+
+    /**
+     * Caches the link unless the key is already cached, so a warm-up never replaces entries
+     * loaded by live traffic.
+     */
+    public void putIfAbsent(String key, ShortUrlStore.Link link) {
+        if (enabled) {
+            cache.asMap().putIfAbsent(key, link);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+}
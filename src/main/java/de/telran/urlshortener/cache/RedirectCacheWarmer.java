@@ -0,0 +1,99 @@
+package de.telran.urlshortener.cache;
+
+import de.telran.urlshortener.config.RedirectCacheConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the most clicked keys into {@link RedirectCache} after startup.
+ * <p>
+ * Right after a restart every redirect would otherwise miss the cache and hit the database.
+ * The warm-up asks the {@link ShortUrlStore} for the {@code warmupSize} most clicked live links
+ * on a background thread, so startup itself is not delayed, and works with every storage
+ * backend. Keys already cached by then are left alone, since redirects served meanwhile put
+ * fresher entries. The expiry of the loaded links is handed to the {@link LinkExpiryTracker}.
+ * While it runs this indicator reports {@code OUT_OF_SERVICE}; it is part of the readiness
+ * group, so a load balancer only routes traffic here once the cache is warm. Past
+ * {@code warmupTimeout} it reports {@code UP} even if the store has not answered yet, and a
+ * failed warm-up ends as {@code UP} too: a colder cache is better than an instance that never
+ * becomes ready.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedirectCacheWarmer implements HealthIndicator {
+
+    private enum State { PENDING, RUNNING, DONE, TIMED_OUT, FAILED, DISABLED }
+
+    private final ShortUrlStore store;
+    private final RedirectCache redirectCache;
+    private final LinkExpiryTracker expiryTracker;
+    private final RedirectCacheConfig config;
+
+    private final AtomicInteger loaded = new AtomicInteger();
+    private volatile State state = State.PENDING;
+    private volatile long deadline = Long.MAX_VALUE;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!config.isWarmupEnabled() || !redirectCache.isEnabled() || config.getWarmupSize() <= 0) {
+            state = State.DISABLED;
+            return;
+        }
+        deadline = System.currentTimeMillis() + config.getWarmupTimeout().toMillis();
+        state = State.RUNNING;
+        Thread thread = new Thread(this::warmUp, "redirect-cache-warmer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Health health() {
+        State current = state;
+        if (current == State.RUNNING && System.currentTimeMillis() > deadline) {
+            current = State.TIMED_OUT;
+        }
+        Health.Builder health = switch (current) {
+            case PENDING, RUNNING -> Health.outOfService();
+            default -> Health.up();
+        };
+        return health.withDetail("state", current).withDetail("loaded", loaded.get()).build();
+    }
+
+    private void warmUp() {
+        long started = System.currentTimeMillis();
+        int limit = (int) Math.min(config.getWarmupSize(), config.getMaximumSize());
+        try {
+            State result = State.DONE;
+            for (Map.Entry<String, ShortUrlStore.Link> entry : store.findMostClicked(limit).entrySet()) {
+                if (System.currentTimeMillis() > deadline) {
+                    result = State.TIMED_OUT;
+                    break;
+                }
+                ShortUrlStore.Link link = entry.getValue();
+                if (link.expiresAt() != null) {
+                    expiryTracker.track(entry.getKey(), link.expiresAt());
+                }
+                redirectCache.putIfAbsent(entry.getKey(), link);
+                loaded.incrementAndGet();
+            }
+            state = result;
+            log.info("Redirect cache warm-up {}: {} keys in {} ms",
+                    state == State.DONE ? "finished" : "timed out", loaded.get(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            // never leave the instance unready because of the warm-up
+            state = State.FAILED;
+            log.warn("Redirect cache warm-up failed after {} keys", loaded.get(), e);
+        }
+    }
+}
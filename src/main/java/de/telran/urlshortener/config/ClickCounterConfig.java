@@ -0,0 +1,15 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.clicks")
+@Getter
+@Setter
+public class ClickCounterConfig {
+    private long flushIntervalMs = 5000;
+    private int batchSize = 500;
+}
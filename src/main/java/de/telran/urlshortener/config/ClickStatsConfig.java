@@ -0,0 +1,32 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.stats")
+@Getter
+@Setter
+public class ClickStatsConfig {
+    private long flushIntervalMs = 60_000;
+    private int batchSize = 500;
+    private Duration minuteRetention = Duration.ofDays(2);
+    private Duration hourRetention = Duration.ofDays(90);
+    private long purgeIntervalMs = 3_600_000;
+    /**
+     * Rows deleted per purge batch, each batch in its own transaction.
+     */
+    private int purgeBatchSize = 500;
+    /**
+     * Upper bound on the batches of one purge run per granularity; a backlog is worked off over later runs.
+     */
+    private int purgeMaxBatches = 100;
+    /**
+     * Upper bound on the points of one stats response; longer ranges are cut at the start.
+     */
+    private int maxPoints = 1_440;
+}
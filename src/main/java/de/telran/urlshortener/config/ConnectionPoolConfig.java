@@ -0,0 +1,33 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.pools")
+@Getter
+@Setter
+public class ConnectionPoolConfig {
+    /**
+     * Gives redirect reads, URL writes and auth their own pools; when off, every workload
+     * shares the {@code spring.datasource.hikari} pool.
+     */
+    private boolean enabled = true;
+    /**
+     * Pool sizes per workload; 0 leaves that workload on the default pool.
+     */
+    private int redirectReadSize = 10;
+    private int urlWriteSize = 4;
+    private int authSize = 4;
+    /**
+     * How long a workload waits for a free connection before failing. Redirects fail fast
+     * rather than queue behind a stalled database.
+     */
+    private Duration redirectReadTimeout = Duration.ofSeconds(1);
+    private Duration urlWriteTimeout = Duration.ofSeconds(5);
+    private Duration authTimeout = Duration.ofSeconds(2);
+}
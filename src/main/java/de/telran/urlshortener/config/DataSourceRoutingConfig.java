@@ -0,0 +1,110 @@
+package de.telran.urlshortener.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import de.telran.urlshortener.datasource.ReadWriteRoutingDataSource;
+import de.telran.urlshortener.datasource.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured pool with a set of pools behind one routing data source:
+ * a default pool on the primary, one per read replica from {@code short-url.replicas.urls},
+ * and on each of these databases one pool per {@link Workload} enabled in
+ * {@code short-url.pools}. Every pool takes the shared {@code spring.datasource.hikari.*}
+ * settings and reports Hikari metrics under its own pool name; replica pools are read-only.
+ */
+@Configuration
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties, ReplicaConfig replicaConfig,
+                                                        ConnectionPoolConfig poolConfig, Environment environment,
+                                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolFactory pools = new PoolFactory(properties, environment, meterRegistry);
+        Map<String, DataSource> workloadPools = new LinkedHashMap<>();
+
+        HikariDataSource primary = pools.create(ReadWriteRoutingDataSource.PRIMARY, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword(), false);
+        addWorkloadPools(pools, poolConfig, primary, ReadWriteRoutingDataSource.PRIMARY, workloadPools);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaConfig.getUrls().size(); i++) {
+            String name = "replica-" + i;
+            HikariDataSource replica = pools.create(name, replicaConfig.getUrls().get(i),
+                    replicaConfig.getUsername() != null ? replicaConfig.getUsername() : properties.determineUsername(),
+                    replicaConfig.getPassword() != null ? replicaConfig.getPassword() : properties.determinePassword(),
+                    true);
+            replicas.put(name, replica);
+            addWorkloadPools(pools, poolConfig, replica, name, workloadPools);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, workloadPools);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static void addWorkloadPools(PoolFactory pools, ConnectionPoolConfig config, HikariDataSource database,
+                                         String databaseName, Map<String, DataSource> workloadPools) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        addWorkloadPool(pools, database, databaseName, Workload.REDIRECT_READ,
+                config.getRedirectReadSize(), config.getRedirectReadTimeout(), workloadPools);
+        addWorkloadPool(pools, database, databaseName, Workload.URL_WRITE,
+                config.getUrlWriteSize(), config.getUrlWriteTimeout(), workloadPools);
+        addWorkloadPool(pools, database, databaseName, Workload.AUTH,
+                config.getAuthSize(), config.getAuthTimeout(), workloadPools);
+    }
+
+    private static void addWorkloadPool(PoolFactory pools, HikariDataSource database, String databaseName,
+                                        Workload workload, int size, Duration timeout,
+                                        Map<String, DataSource> workloadPools) {
+        if (size <= 0) {
+            return;
+        }
+        String name = ReadWriteRoutingDataSource.poolName(databaseName, workload);
+        HikariDataSource pool = pools.create(name, database.getJdbcUrl(), database.getUsername(),
+                database.getPassword(), database.isReadOnly());
+        pool.setMaximumPoolSize(size);
+        if (pool.getMinimumIdle() > size) {
+            pool.setMinimumIdle(size);
+        }
+        pool.setConnectionTimeout(timeout.toMillis());
+        workloadPools.put(name, pool);
+    }
+
+    private record PoolFactory(DataSourceProperties properties, Environment environment,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+
+        HikariDataSource create(String name, String url, String username, String password, boolean readOnly) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+            pool.setPoolName(name);
+            pool.setReadOnly(readOnly);
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            return pool;
+        }
+    }
+}
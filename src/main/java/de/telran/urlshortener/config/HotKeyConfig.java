@@ -0,0 +1,25 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.hot-keys")
+@Getter
+@Setter
+public class HotKeyConfig {
+    private boolean enabled = true;
+    /**
+     * Keys monitored at once; bounds memory and the smallest rate that is reliably reported.
+     */
+    private int capacity = 1_000;
+    /**
+     * Time after which a click counts half as much towards the current rate.
+     */
+    private Duration halfLife = Duration.ofMinutes(5);
+    private int maxResults = 100;
+}
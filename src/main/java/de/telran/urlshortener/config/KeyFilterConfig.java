@@ -0,0 +1,26 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.key-filter")
+@Getter
+@Setter
+public class KeyFilterConfig {
+    private boolean enabled = true;
+    private long expectedKeys = 1_000_000;
+    private double falsePositiveRate = 0.01;
+    private long negativeCacheSize = 10_000;
+    private Duration negativeCacheTtl = Duration.ofMinutes(1);
+    private long rebuildIntervalMs = 3_600_000;
+    /**
+     * Look keys the Bloom filter has not seen up in the store instead of rejecting them; needed
+     * when several instances create keys in the same store.
+     */
+    private boolean storeFallback = false;
+}
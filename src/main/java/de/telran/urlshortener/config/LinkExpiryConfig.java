@@ -0,0 +1,39 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.expiry")
+@Getter
+@Setter
+public class LinkExpiryConfig {
+    /**
+     * Longest lifetime a link may be given; null for no limit.
+     */
+    private Duration maxTtl;
+    /**
+     * Resolution of the timing wheel: a cached link is evicted at most one tick after it expired.
+     */
+    private long tickMs = 1_000;
+    private int wheelSize = 64;
+    /**
+     * Recently expired keys rejected without a lookup, and for how long.
+     */
+    private long expiredKeysSize = 100_000;
+    private Duration expiredKeysTtl = Duration.ofMinutes(10);
+    private boolean purgeEnabled = true;
+    private long purgeIntervalMs = 60_000;
+    /**
+     * Rows deleted per purge transaction, which bounds how long the purge holds row locks.
+     */
+    private int purgeBatchSize = 500;
+    /**
+     * Batches per purge run; the rest waits for the next run.
+     */
+    private int purgeMaxBatches = 100;
+}
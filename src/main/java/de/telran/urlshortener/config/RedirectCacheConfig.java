@@ -0,0 +1,31 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.cache")
+@Getter
+@Setter
+public class RedirectCacheConfig {
+    private boolean enabled = true;
+    private long maximumSize = 100_000;
+    private Duration expireAfterWrite = Duration.ofHours(1);
+    private boolean recordStats = true;
+    /**
+     * Load the most clicked keys into the cache in the background after startup.
+     */
+    private boolean warmupEnabled = true;
+    /**
+     * Keys loaded by the warm-up, at most {@code maximumSize}.
+     */
+    private int warmupSize = 10_000;
+    /**
+     * Time after which the warm-up stops and the instance reports ready regardless.
+     */
+    private Duration warmupTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,43 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.replicas")
+@Getter
+@Setter
+public class ReplicaConfig {
+    /**
+     * JDBC URLs of the read replicas; read-only transactions are spread over them. Without
+     * any, everything runs on {@code spring.datasource}.
+     */
+    private List<String> urls = new ArrayList<>();
+    /**
+     * Credentials of the replicas; default to those of the primary.
+     */
+    private String username;
+    private String password;
+    /**
+     * Replicas further behind the primary than this are taken out of rotation until they
+     * catch up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    /**
+     * Query run on each replica that returns its replication lag in seconds, e.g.
+     * {@code SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())} on PostgreSQL.
+     * Without one, replicas are only checked for being reachable.
+     */
+    private String lagQuery;
+    private long checkIntervalMs = 5000;
+
+    public boolean isEnabled() {
+        return !urls.isEmpty();
+    }
+}
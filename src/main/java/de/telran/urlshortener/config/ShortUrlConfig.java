@@ -10,6 +10,32 @@ import org.springframework.context.annotation.Configuration;
 @Getter
 @Setter
 public class ShortUrlConfig {
+    /**
+     * Longest key accepted beyond {@code keyLength}, see sequence keys in {@code KeyEncoder}.
+     */
+    public static final int MAX_EXTRA_KEY_LENGTH = 4;
+
     private String allowedCharacters;
     private int keyLength;
+    private KeyMode keyMode = KeyMode.RANDOM;
+    private int keyBlockSize = 1000;
+    private boolean scrambleKeys = true;
+    private long scrambleSecret;
+    private int maxBatchSize = 1000;
+    private int importChunkSize = 500;
+    /**
+     * Longest CSV line, or URL of an NDJSON record, accepted by an import.
+     */
+    private int importMaxLineLength = 8_192;
+
+    public enum KeyMode {
+        /**
+         * Random keys of {@code keyLength} characters.
+         */
+        RANDOM,
+        /**
+         * Base-N encoded ids leased in blocks from the {@code key_sequence} table.
+         */
+        SEQUENCE
+    }
 }
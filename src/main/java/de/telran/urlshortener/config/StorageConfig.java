@@ -0,0 +1,56 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.storage")
+@Getter
+@Setter
+public class StorageConfig {
+    private Backend backend = Backend.JPA;
+    /**
+     * Query returning the next value of the {@code urls} id sequence, used by the {@code jdbc}
+     * backend. The default works for H2 and MariaDB; PostgreSQL needs
+     * {@code SELECT nextval('urls_seq')}.
+     */
+    private String jdbcNextIdSql = "SELECT NEXT VALUE FOR urls_seq";
+    /**
+     * Directory holding the segment files of the {@code mmap} backend.
+     */
+    private String mmapDirectory = "data/short-urls";
+    /**
+     * Size of each memory-mapped segment file; a record must fit into one segment.
+     */
+    private int mmapSegmentSize = 64 * 1024 * 1024;
+    /**
+     * Initial capacity of the in-memory indexes; they grow beyond it by doubling.
+     */
+    private int mmapExpectedKeys = 1_000_000;
+    /**
+     * Force every appended record to disk before the insert returns.
+     */
+    private boolean mmapSyncWrites = false;
+
+    public enum Backend {
+        /**
+         * The {@code urls} table through Spring Data JPA.
+         */
+        JPA,
+        /**
+         * The {@code urls} table through hand-written SQL on {@code JdbcTemplate}, without a
+         * persistence context.
+         */
+        JDBC,
+        /**
+         * A concurrent map in this instance only; for tests and throwaway deployments.
+         */
+        MEMORY,
+        /**
+         * Append-only memory-mapped segment files with in-memory hash indexes.
+         */
+        MMAP
+    }
+}
@@ -0,0 +1,23 @@
+package de.telran.urlshortener.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "short-url.hash-backfill")
+@Getter
+@Setter
+public class UrlHashBackfillConfig {
+    private boolean enabled = true;
+    private long intervalMs = 60_000;
+    /**
+     * Links given a digest per write.
+     */
+    private int batchSize = 500;
+    /**
+     * Batches per run; the rest waits for the next run.
+     */
+    private int maxBatches = 100;
+}
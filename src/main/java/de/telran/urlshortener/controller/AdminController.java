@@ -0,0 +1,51 @@
+package de.telran.urlshortener.controller;
+
+import de.telran.urlshortener.dto.HotKeyResponse;
+import de.telran.urlshortener.dto.UrlListFormat;
+import de.telran.urlshortener.exception.UnsupportedFormatException;
+import de.telran.urlshortener.service.HotKeyTracker;
+import de.telran.urlshortener.service.UrlExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final UrlExportService exportService;
+    private final HotKeyTracker hotKeyTracker;
+
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        UrlListFormat listFormat = UrlListFormat.fromName(format);
+        response.setContentType(listFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"urls." + listFormat.name().toLowerCase(Locale.ROOT) + "\"");
+        exportService.exportUrls(listFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/top")
+    public List<HotKeyResponse> top(@RequestParam(defaultValue = "20") int n) {
+        return hotKeyTracker.top(n);
+    }
+
+    /**
+     * Answers an unknown export format with 400 and the allowed formats in the body.
+     *
+     * @param e the exception naming the rejected and the allowed formats.
+     * @return a plain text response with the message of the exception.
+     */
+    @ExceptionHandler(UnsupportedFormatException.class)
+    public ResponseEntity<String> unsupportedFormat(UnsupportedFormatException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -1,18 +1,32 @@
 package de.telran.urlshortener.controller;
 
+import de.telran.urlshortener.dto.ClickStatsResponse;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
 import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.dto.UrlListFormat;
 import de.telran.urlshortener.dto.ShortUrlResponse;
+import de.telran.urlshortener.dto.StatsGranularity;
+import de.telran.urlshortener.service.ClickRollupService;
+import de.telran.urlshortener.service.UrlImportService;
 import de.telran.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.view.RedirectView;
 
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 public class UrlController {
 
     private final UrlShortenerService service;
+    private final UrlImportService importService;
+    private final ClickRollupService rollupService;
 
     @PostMapping("/createUrl")
     public ResponseEntity<ShortUrlResponse> createUrl(
@@ -21,6 +35,30 @@ public class UrlController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/createUrls")
+    public ResponseEntity<List<ShortUrlBatchResponse>> createUrls(
+            @RequestBody List<ShortUrlRequest> requests) {
+        List<ShortUrlBatchResponse> responses = service.createShortUrls(requests);
+        return ResponseEntity.ok(responses);
+    }
+
+    @PostMapping(value = "/importUrls", consumes = {"text/csv", "application/x-ndjson"},
+            produces = "application/x-ndjson")
+    public void importUrls(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UrlListFormat format = UrlListFormat.fromContentType(request.getContentType());
+        response.setContentType(UrlListFormat.NDJSON.getMediaType());
+        importService.importUrls(request.getInputStream(), format, response.getOutputStream());
+    }
+
+    @GetMapping("/stats/{key}")
+    public ResponseEntity<ClickStatsResponse> stats(
+            @PathVariable String key,
+            @RequestParam(defaultValue = "HOUR") StatsGranularity granularity,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return ResponseEntity.ok(rollupService.getStats(key, granularity, from, to));
+    }
+
     @GetMapping("/{key}")
     public RedirectView redirect(@PathVariable String key) {
         return service.getFullUrl(key);
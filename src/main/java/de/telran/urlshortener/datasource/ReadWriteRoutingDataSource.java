@@ -0,0 +1,142 @@
+package de.telran.urlshortener.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Picks the connection pool for each connection: read-only transactions go to the read
+ * replicas, everything else to the primary, and within that database the pool of the current
+ * {@link Workload}, if it has one.
+ * <p>
+ * The read-only flag of the current transaction is only known once the transaction has
+ * started, so this data source must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the
+ * physical connection on the first statement. Replicas are used round-robin; replicas marked
+ * unavailable are skipped, and without any available replica reads go to the primary too.
+ * </p>
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final Map<String, DataSource> replicas;
+    private final Set<String> pools;
+    private final Set<String> unavailable = new HashSet<>();
+    private volatile List<String> available;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this(primary, replicas, Map.of());
+    }
+
+    /**
+     * @param primary       default pool of the primary.
+     * @param replicas      default pool of each replica, by replica name.
+     * @param workloadPools workload pools of any of these databases, named by
+     *                      {@link #poolName}.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      Map<String, DataSource> workloadPools) {
+        this.replicas = Map.copyOf(replicas);
+        this.available = List.copyOf(replicas.keySet());
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.putAll(workloadPools);
+        targets.put(PRIMARY, primary);
+        this.pools = new HashSet<>();
+        targets.keySet().forEach(pool -> pools.add((String) pool));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Name of the pool that serves {@code workload} on {@code database}.
+     */
+    public static String poolName(String database, Workload workload) {
+        return database + "-" + workload.getPoolName();
+    }
+
+    /**
+     * Runs {@code action} on the primary even inside read-only transactions it starts, for
+     * reads that must see the latest writes. Has no effect on a transaction that is already
+     * running, since its connection is bound by then.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean outer = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public List<String> getAvailableReplicas() {
+        return available;
+    }
+
+    /**
+     * Takes a replica out of rotation or puts it back.
+     */
+    public synchronized void setAvailable(String replica, boolean isAvailable) {
+        boolean changed = isAvailable ? unavailable.remove(replica) : unavailable.add(replica);
+        if (changed) {
+            List<String> replicaNames = new ArrayList<>(replicas.keySet());
+            replicaNames.removeAll(unavailable);
+            available = List.copyOf(replicaNames);
+            log.warn("Replica {} is {}, {} of {} replicas in rotation", replica,
+                    isAvailable ? "back" : "out of rotation", available.size(), replicas.size());
+        }
+    }
+
+    public void close() {
+        for (Object target : getResolvedDataSources().values()) {
+            if (target instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close data source {}", target, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String database = database();
+        Workload workload = Workload.current();
+        if (workload != null) {
+            String pool = poolName(database, workload);
+            if (pools.contains(pool)) {
+                return pool;
+            }
+        }
+        return database;
+    }
+
+    private String database() {
+        if (PRIMARY_FORCED.get() != null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> replicaNames = available;
+        if (replicaNames.isEmpty()) {
+            return PRIMARY;
+        }
+        return replicaNames.get(Math.floorMod(next.getAndIncrement(), replicaNames.size()));
+    }
+}
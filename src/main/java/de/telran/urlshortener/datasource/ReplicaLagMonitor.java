@@ -0,0 +1,60 @@
+package de.telran.urlshortener.datasource;
+
+import de.telran.urlshortener.config.ReplicaConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Periodically checks every replica and keeps only those in rotation that are reachable and,
+ * when a lag query is configured, no further behind than {@code short-url.replicas.max-lag}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-url.replicas", name = "urls")
+public class ReplicaLagMonitor {
+
+    private static final int TIMEOUT_SECONDS = 2;
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReplicaConfig config;
+
+    @Scheduled(fixedDelayString = "${short-url.replicas.check-interval-ms:5000}")
+    public void check() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            routingDataSource.setAvailable(replica.getKey(), isCaughtUp(replica.getKey(), replica.getValue()));
+        }
+    }
+
+    private boolean isCaughtUp(String name, DataSource replica) {
+        try {
+            if (!StringUtils.hasText(config.getLagQuery())) {
+                try (Connection connection = replica.getConnection()) {
+                    return connection.isValid(TIMEOUT_SECONDS);
+                }
+            }
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+            jdbcTemplate.setQueryTimeout(TIMEOUT_SECONDS);
+            Double lagSeconds = jdbcTemplate.queryForObject(config.getLagQuery(), Double.class);
+            // no replay yet reads as NULL on most databases; that replica has nothing to serve
+            if (lagSeconds == null || lagSeconds * 1000 > config.getMaxLag().toMillis()) {
+                log.debug("Replica {} lags {} s behind the primary", name, lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Replica {} check failed", name, e);
+            return false;
+        }
+    }
+}
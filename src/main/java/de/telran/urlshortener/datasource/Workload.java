@@ -0,0 +1,71 @@
+package de.telran.urlshortener.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Classes of database work that get their own connection pool, so a spike in one cannot take
+ * the connections another one needs. Work outside any workload uses the default pool.
+ * <p>
+ * The workload is picked up when a connection is fetched, so it must be entered before the
+ * transaction or statement starts; a transaction keeps its connection, and so its pool, to
+ * the end.
+ * </p>
+ */
+public enum Workload {
+    /**
+     * Short key lookups for redirects.
+     */
+    REDIRECT_READ("redirect-read"),
+    /**
+     * Creating short URLs, single, batched and imported.
+     */
+    URL_WRITE("url-write"),
+    /**
+     * User lookups and refresh tokens during login and token refresh.
+     */
+    AUTH("auth");
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private final String poolName;
+
+    Workload(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    /**
+     * Runs {@code action} as this workload; nested calls switch to the inner workload until they
+     * return.
+     */
+    public <T> T call(Supplier<T> action) {
+        Workload outer = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * The workload of the calling thread, or null outside any.
+     */
+    public static Workload current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,32 @@
+package de.telran.urlshortener.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class ClickStatsResponse {
+    private String key;
+    private StatsGranularity granularity;
+    /**
+     * Start of the first bucket, inclusive.
+     */
+    private Instant from;
+    /**
+     * End of the last bucket, exclusive.
+     */
+    private Instant to;
+    private long total;
+    /**
+     * One point per bucket in {@code [from, to)}, including buckets without clicks.
+     */
+    private List<Point> points;
+
+    public record Point(Instant bucket, long clicks) {
+    }
+}
@@ -0,0 +1,17 @@
+package de.telran.urlshortener.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class HotKeyResponse {
+    private String key;
+    /**
+     * Exponentially decayed click rate; may overestimate by up to {@code maxOverestimate}.
+     */
+    private double clicksPerMinute;
+    private double maxOverestimate;
+}
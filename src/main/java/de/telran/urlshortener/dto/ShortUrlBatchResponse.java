@@ -0,0 +1,29 @@
+package de.telran.urlshortener.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class ShortUrlBatchResponse {
+    private String url;
+    private String key;
+    private Status status;
+
+    public enum Status {
+        /**
+         * A new short URL was created for this item.
+         */
+        CREATED,
+        /**
+         * The URL was already shortened, earlier or by a previous item of the same batch.
+         */
+        EXISTING,
+        /**
+         * The item is null, has no URL or has an invalid expiry.
+         */
+        INVALID
+    }
+}
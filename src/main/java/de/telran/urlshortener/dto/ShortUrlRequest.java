@@ -3,8 +3,19 @@ package de.telran.urlshortener.dto;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Duration;
+import java.time.Instant;
+
 @Getter
 @Setter
 public class ShortUrlRequest {
     private String url;
+    /**
+     * Lifetime of the link from its creation, e.g. {@code "PT24H"}; excludes {@code expiresAt}.
+     */
+    private Duration ttl;
+    /**
+     * Absolute end of the lifetime of the link; excludes {@code ttl}.
+     */
+    private Instant expiresAt;
 }
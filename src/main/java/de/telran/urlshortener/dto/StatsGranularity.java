@@ -0,0 +1,26 @@
+package de.telran.urlshortener.dto;
+
+import lombok.Getter;
+
+/**
+ * Bucket sizes of the click rollups. Buckets are aligned to UTC.
+ */
+@Getter
+public enum StatsGranularity {
+    MINUTE(60),
+    HOUR(3_600),
+    DAY(86_400);
+
+    private final long seconds;
+
+    StatsGranularity(long seconds) {
+        this.seconds = seconds;
+    }
+
+    /**
+     * Returns the start of the bucket containing the given moment, in epoch seconds.
+     */
+    public long bucketStart(long epochSecond) {
+        return epochSecond - Math.floorMod(epochSecond, seconds);
+    }
+}
@@ -0,0 +1,50 @@
+package de.telran.urlshortener.dto;
+
+import de.telran.urlshortener.exception.UnsupportedFormatException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Wire formats for bulk import and export of URL lists.
+ */
+public enum UrlListFormat {
+    /**
+     * Comma separated values, one record per line.
+     */
+    CSV("text/csv"),
+    /**
+     * Newline delimited JSON, one object per line.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    UrlListFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param name the format name, in any case.
+     * @throws UnsupportedFormatException if no format has that name.
+     */
+    public static UrlListFormat fromName(String name) {
+        for (UrlListFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new UnsupportedFormatException(name, Arrays.stream(values())
+                .map(format -> format.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(", ")));
+    }
+
+    public static UrlListFormat fromContentType(String contentType) {
+        return contentType != null && contentType.startsWith(CSV.mediaType) ? CSV : NDJSON;
+    }
+}
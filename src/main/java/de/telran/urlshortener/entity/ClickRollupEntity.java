@@ -0,0 +1,22 @@
+package de.telran.urlshortener.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Clicks of one short key in one minute, hour or day bucket.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "click_rollups",
+        indexes = @Index(name = "idx_click_rollups_granularity_bucket", columnList = "granularity, bucket_start"))
+public class ClickRollupEntity {
+    @EmbeddedId
+    private ClickRollupId id;
+
+    @Column(name = "clicks", nullable = false)
+    private Long clicks;
+}
@@ -0,0 +1,26 @@
+package de.telran.urlshortener.entity;
+
+import de.telran.urlshortener.dto.StatsGranularity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClickRollupId implements Serializable {
+    @Column(name = "short_url", nullable = false)
+    private String key;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "granularity", nullable = false)
+    private StatsGranularity granularity;
+
+    /**
+     * Bucket start in epoch seconds.
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private Long bucketStart;
+}
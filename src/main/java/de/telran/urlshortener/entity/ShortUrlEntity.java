@@ -3,16 +3,22 @@ package de.telran.urlshortener.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
 @Entity
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "urls")
+@Table(name = "urls", indexes = {
+        @Index(name = "idx_urls_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_urls_click_count", columnList = "click_count")
+})
 public class ShortUrlEntity {
     @Id
     @Column(name = "id", nullable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "urls_seq")
+    @SequenceGenerator(name = "urls_seq", sequenceName = "urls_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "short_url", unique = true)
@@ -21,6 +27,18 @@ public class ShortUrlEntity {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String fullUrl;
 
+    /**
+     * Digest of the normalized full URL; null for expiring links, which are never deduplicated.
+     */
+    @Column(name = "full_url_hash", length = 64, unique = true)
+    private String fullUrlHash;
+
     @Column(nullable = false)
     private Long clickCount;
+
+    /**
+     * End of the lifetime of the link; null if it never expires.
+     */
+    @Column(name = "expires_at")
+    private Instant expiresAt;
 }
\ No newline at end of file
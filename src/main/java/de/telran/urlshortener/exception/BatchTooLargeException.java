@@ -0,0 +1,11 @@
+package de.telran.urlshortener.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchTooLargeException extends RuntimeException {
+    public BatchTooLargeException(int size, int maxSize) {
+        super("Batch of " + size + " URLs exceeds the limit of " + maxSize);
+    }
+}
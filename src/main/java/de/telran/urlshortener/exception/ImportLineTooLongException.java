@@ -0,0 +1,11 @@
+package de.telran.urlshortener.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ImportLineTooLongException extends RuntimeException {
+    public ImportLineTooLongException(long record, int maxLength) {
+        super("Import record " + record + " exceeds the limit of " + maxLength + " characters");
+    }
+}
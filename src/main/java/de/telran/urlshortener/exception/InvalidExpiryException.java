@@ -0,0 +1,11 @@
+package de.telran.urlshortener.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidExpiryException extends RuntimeException {
+    public InvalidExpiryException(String message) {
+        super(message);
+    }
+}
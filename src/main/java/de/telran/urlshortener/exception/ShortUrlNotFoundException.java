@@ -0,0 +1,11 @@
+package de.telran.urlshortener.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ShortUrlNotFoundException extends RuntimeException {
+    public ShortUrlNotFoundException(String key) {
+        super("Short URL '" + key + "' not found");
+    }
+}
@@ -0,0 +1,11 @@
+package de.telran.urlshortener.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedFormatException extends RuntimeException {
+    public UnsupportedFormatException(String format, String allowedFormats) {
+        super("Unsupported format '" + format + "', expected one of: " + allowedFormats);
+    }
+}
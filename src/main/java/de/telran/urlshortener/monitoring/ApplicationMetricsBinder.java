@@ -0,0 +1,128 @@
+package de.telran.urlshortener.monitoring;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.security.jwt.VerifiedTokenCache;
+import de.telran.urlshortener.security.service.InMemoryRefreshTokenStore;
+import de.telran.urlshortener.security.service.PasswordVerifier;
+import de.telran.urlshortener.security.service.UserService;
+import de.telran.urlshortener.service.ClickCounter;
+import de.telran.urlshortener.service.ClickRollupService;
+import de.telran.urlshortener.service.ExpiredLinkPurger;
+import de.telran.urlshortener.service.HotKeyTracker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges over the state the components already track: cache statistics, the click flush
+ * backlog, link expiry, the password worker pool and, when enabled, virtual thread pinning.
+ * <p>
+ * Cache meters use the names of Micrometer's Caffeine binder ({@code cache.gets},
+ * {@code cache.evictions}, {@code cache.size}), so the usual cache dashboards work unchanged.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationMetricsBinder implements MeterBinder {
+
+    private final RedirectCache redirectCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserService userService;
+    private final ClickCounter clickCounter;
+    private final ClickRollupService clickRollups;
+    private final HotKeyTracker hotKeyTracker;
+    private final LinkExpiryTracker expiryTracker;
+    private final ExpiredLinkPurger expiredLinkPurger;
+    private final PasswordVerifier passwordVerifier;
+    private final ObjectProvider<InMemoryRefreshTokenStore> refreshTokenStore;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "redirects", redirectCache, RedirectCache::stats, RedirectCache::estimatedSize);
+        bindCache(registry, "jwt.verified", verifiedTokenCache,
+                VerifiedTokenCache::stats, VerifiedTokenCache::estimatedSize);
+        bindCache(registry, "users", userService, UserService::cacheStats, UserService::cacheSize);
+
+        TimeGauge.builder("urlshortener.clicks.flush.lag", clickCounter,
+                        TimeUnit.MILLISECONDS, counter -> counter.getFlushLag().toMillis())
+                .description("Time since the last successful click count flush")
+                .register(registry);
+        Gauge.builder("urlshortener.clicks.pending", clickCounter, ClickCounter::getPendingKeys)
+                .description("Short keys with click counts waiting to be flushed")
+                .register(registry);
+        Gauge.builder("urlshortener.stats.pending", clickRollups, ClickRollupService::getPendingBuckets)
+                .description("Click rollup buckets waiting to be flushed")
+                .register(registry);
+        Gauge.builder("urlshortener.hot.keys.tracked", hotKeyTracker, HotKeyTracker::getTrackedKeys)
+                .description("Short keys monitored by the hot key tracker")
+                .register(registry);
+        Gauge.builder("urlshortener.expiry.scheduled", expiryTracker, LinkExpiryTracker::getScheduledKeys)
+                .description("Expiring links on the timing wheel of this instance")
+                .register(registry);
+        Gauge.builder("urlshortener.expiry.expired", expiryTracker, LinkExpiryTracker::getExpiredKeys)
+                .description("Expired keys rejected on redirect without a lookup")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.expiry.purged", expiredLinkPurger, ExpiredLinkPurger::getPurgedCount)
+                .description("Expired links deleted by the purger of this instance")
+                .register(registry);
+
+        Gauge.builder("urlshortener.password.queue.depth", passwordVerifier, PasswordVerifier::getQueueDepth)
+                .description("Logins waiting for a password worker")
+                .register(registry);
+        Gauge.builder("urlshortener.password.active", passwordVerifier, PasswordVerifier::getActiveWorkers)
+                .description("Password workers currently hashing")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.password.rejected", passwordVerifier, PasswordVerifier::getRejectedCount)
+                .description("Logins rejected with 429 because the password queue was full")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.password.timeouts", passwordVerifier, PasswordVerifier::getTimedOutCount)
+                .description("Logins rejected with 503 because the password check took too long")
+                .register(registry);
+
+        refreshTokenStore.ifAvailable(store ->
+                Gauge.builder("urlshortener.refresh.tokens", store, InMemoryRefreshTokenStore::estimatedSize)
+                        .description("Refresh tokens held by the in-memory store")
+                        .register(registry));
+        pinningMonitor.ifAvailable(monitor ->
+                FunctionCounter.builder("urlshortener.virtual.threads.pinned", monitor,
+                                m -> m.getPinnedSites().values().stream().mapToLong(Long::longValue).sum())
+                        .description("Virtual thread pinning events longer than the monitor threshold")
+                        .register(registry));
+    }
+
+    /**
+     * Meters read from the owning component, which the context keeps alive; Micrometer only
+     * holds weak references to the objects it observes.
+     */
+    private static <T> void bindCache(MeterRegistry registry, String name, T owner,
+                                      Function<T, CacheStats> stats, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).hitCount())
+                .tags("cache", name, "result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> stats.apply(o).missCount())
+                .tags("cache", name, "result", "miss")
+                .description("The number of times cache lookup methods have returned an uncached value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> stats.apply(o).evictionCount())
+                .tag("cache", name)
+                .description("The number of times the cache was evicted")
+                .register(registry);
+        Gauge.builder("cache.size", owner, size)
+                .tag("cache", name)
+                .description("The approximate number of entries in this cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,95 @@
+package de.telran.urlshortener.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers and counters of the request hot paths.
+ * <p>
+ * Every meter is created once here, so the hot paths only record into existing meters and
+ * never look them up per call. Timers publish percentile histograms, which lets Prometheus
+ * compute p99 across instances with {@code histogram_quantile}.
+ * </p>
+ */
+@Component
+@Getter
+public class UrlShortenerMetrics {
+
+    private final Timer redirectFound;
+    private final Timer redirectNotFound;
+    private final Timer redirectRejected;
+    private final Timer redirectExpired;
+
+    private final Timer createCreated;
+    private final Timer createExisting;
+
+    private final Timer keyGeneration;
+    private final Counter keyCollisions;
+    private final Counter concurrentDuplicates;
+    private final Counter replicaMisses;
+
+    private final Timer jwtValid;
+    private final Timer jwtInvalid;
+
+    private final Timer loginSuccess;
+    private final Timer loginFailure;
+    private final Timer loginThrottled;
+
+    private final Timer passwordHash;
+
+    public UrlShortenerMetrics(MeterRegistry registry) {
+        redirectFound = timer(registry, "urlshortener.redirect", "Short key lookups for redirects", "found");
+        redirectNotFound = timer(registry, "urlshortener.redirect", "Short key lookups for redirects", "not_found");
+        redirectRejected = timer(registry, "urlshortener.redirect", "Short key lookups for redirects", "rejected");
+        redirectExpired = timer(registry, "urlshortener.redirect", "Short key lookups for redirects", "expired");
+
+        createCreated = timer(registry, "urlshortener.create", "Single short URL creations", "created");
+        createExisting = timer(registry, "urlshortener.create", "Single short URL creations", "existing");
+
+        keyGeneration = Timer.builder("urlshortener.key.generation")
+                .description("Short key generation")
+                .publishPercentileHistogram()
+                .register(registry);
+        keyCollisions = Counter.builder("urlshortener.key.collisions")
+                .description("Inserts rejected because the generated key already existed")
+                .register(registry);
+        concurrentDuplicates = Counter.builder("urlshortener.create.concurrent.duplicates")
+                .description("Inserts rejected because the same URL was shortened concurrently")
+                .register(registry);
+        replicaMisses = Counter.builder("urlshortener.replica.misses")
+                .description("Lookups a read replica missed and the primary answered")
+                .register(registry);
+
+        jwtValid = timer(registry, "urlshortener.jwt.verification", "Access token verification in JwtFilter", "valid");
+        jwtInvalid = timer(registry, "urlshortener.jwt.verification", "Access token verification in JwtFilter", "invalid");
+
+        loginSuccess = timer(registry, "urlshortener.auth.login", "Logins", "success");
+        loginFailure = timer(registry, "urlshortener.auth.login", "Logins", "failure");
+        loginThrottled = timer(registry, "urlshortener.auth.login", "Logins", "throttled");
+
+        passwordHash = Timer.builder("urlshortener.password.hash")
+                .description("Password hash checks on the password worker pool, excluding queue time")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, taken from {@link System#nanoTime()}.
+     */
+    public static void recordSince(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer timer(MeterRegistry registry, String name, String description, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
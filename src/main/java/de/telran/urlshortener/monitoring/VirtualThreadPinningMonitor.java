@@ -0,0 +1,110 @@
+package de.telran.urlshortener.monitoring;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects virtual threads pinned to their carrier thread while blocking.
+ * <p>
+ * Subscribes in-process to the JFR {@code jdk.VirtualThreadPinned} event, which the JDK emits
+ * when a virtual thread parks inside a {@code synchronized} block or a native frame for longer
+ * than the threshold. Pinned sites are counted per blocking frame and logged the first time they
+ * are seen, which is usually enough to spot a JDBC driver or pool that does not yet use
+ * {@link java.util.concurrent.locks.ReentrantLock}.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "short-url.virtual-threads.pinning-monitor", name = "enabled")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "de.telran.urlshortener";
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            @Value("${short-url.virtual-threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual thread pinning monitor started, threshold {}", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return the number of pinning events per blocking site seen so far.
+     */
+    public Map<String, Long> getPinnedSites() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        pinnedSites.forEach((site, count) -> snapshot.put(site, count.sum()));
+        return snapshot;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = describe(event.getStackTrace());
+        LongAdder count = pinnedSites.computeIfAbsent(site, s -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    /**
+     * Names the frame that blocked and, if different, the first application frame below it.
+     */
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        String blocking = null;
+        String application = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            String name = type + "." + frame.getMethod().getName();
+            if (blocking == null && !type.startsWith("java.") && !type.startsWith("jdk.")) {
+                blocking = name;
+            }
+            if (type.startsWith(APPLICATION_PACKAGE)) {
+                application = name;
+                break;
+            }
+        }
+        if (blocking == null) {
+            RecordedFrame top = stackTrace.getFrames().get(0);
+            blocking = top.getMethod().getType().getName() + "." + top.getMethod().getName();
+        }
+        return application == null || application.equals(blocking) ? blocking : blocking + " <- " + application;
+    }
+}
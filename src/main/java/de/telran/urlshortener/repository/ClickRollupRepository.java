@@ -0,0 +1,15 @@
+package de.telran.urlshortener.repository;
+
+import de.telran.urlshortener.dto.StatsGranularity;
+import de.telran.urlshortener.entity.ClickRollupEntity;
+import de.telran.urlshortener.entity.ClickRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ClickRollupRepository extends JpaRepository<ClickRollupEntity, ClickRollupId> {
+    @Query("SELECT r FROM ClickRollupEntity r WHERE r.id.key = ?1 AND r.id.granularity = ?2 "
+            + "AND r.id.bucketStart >= ?3 AND r.id.bucketStart < ?4 ORDER BY r.id.bucketStart")
+    List<ClickRollupEntity> findSeries(String key, StatsGranularity granularity, long fromEpochSecond, long toEpochSecond);
+}
@@ -0,0 +1,15 @@
+package de.telran.urlshortener.repository;
+
+import de.telran.urlshortener.entity.KeySequenceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface KeySequenceRepository extends JpaRepository<KeySequenceEntity, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM KeySequenceEntity s WHERE s.name = ?1")
+    Optional<KeySequenceEntity> findForUpdate(String name);
+}
@@ -4,7 +4,11 @@ package de.telran.urlshortener.repository;
 import de.telran.urlshortener.entity.ShortUrlEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface ShortUrlRepository extends JpaRepository<ShortUrlEntity, Long> {
     ShortUrlEntity findByKey(String key);
-    ShortUrlEntity findByFullUrl(String fullUrl);
+    ShortUrlEntity findByFullUrlHash(String fullUrlHash);
+    List<ShortUrlEntity> findByFullUrlHashIn(Collection<String> fullUrlHashes);
 }
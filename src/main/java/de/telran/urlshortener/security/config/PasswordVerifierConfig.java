@@ -0,0 +1,30 @@
+package de.telran.urlshortener.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the worker pool that checks passwords for {@code /auth/login}.
+ * <p>
+ * {@code threads} hashes run at once, at most {@code queueCapacity} more wait. A login that
+ * finds the queue full is rejected with 429, and one that is not verified within
+ * {@code timeout} is rejected with 503.
+ * </p>
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "security.password-pool")
+@Getter
+@Setter
+public class PasswordVerifierConfig {
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 64;
+    private Duration timeout = Duration.ofSeconds(2);
+}
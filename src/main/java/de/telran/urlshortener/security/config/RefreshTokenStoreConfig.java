@@ -0,0 +1,47 @@
+package de.telran.urlshortener.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the refresh token store used by {@code AuthService}.
+ * <p>
+ * {@code type} selects the implementation: {@code memory} keeps tokens in this instance only,
+ * {@code jdbc} keeps them in the {@code refresh_tokens} table so they survive restarts and are
+ * shared by all instances.
+ * </p>
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jwt.refresh-store")
+@Getter
+@Setter
+public class RefreshTokenStoreConfig {
+
+    public enum Type {
+        MEMORY,
+        JDBC
+    }
+
+    private Type type = Type.MEMORY;
+
+    /**
+     * Upper bound on sessions kept by the in-memory store.
+     */
+    private long maximumSize = 1_000_000;
+
+    /**
+     * Delay between runs of the expired-token cleanup of the JDBC store.
+     */
+    private long cleanupIntervalMs = 60_000;
+
+    /**
+     * Rows deleted per statement batch by the expired-token cleanup.
+     */
+    private int cleanupBatchSize = 1000;
+}
@@ -1,9 +1,12 @@
 package de.telran.urlshortener.security.config;
 
+import de.telran.urlshortener.config.ShortUrlConfig;
 import de.telran.urlshortener.security.jwt.JwtFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -13,14 +16,24 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RegexRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Arrays;
 
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
 
 /**
  * Configuration class for setting up web application security.
  * <p>
  * This class configures security parameters such as disabling CSRF, session management,
  * authorization rules, and adding the JWT filter to the filter chain.
+ * Public redirects ({@code GET /{key}}) are matched first by a separate chain that carries
+ * only the filters they need and never looks at a JWT.
  * </p>
  *
  * @Configuration       - Indicates that this is a configuration class.
@@ -49,10 +62,85 @@ public class SecurityConfig {
             "/swagger-ui.html",
             "/swagger-ui/**"
     };
+    /**
+     * Health probes; every other actuator endpoint, the Prometheus scrape included, needs the
+     * admin role.
+     */
+    public static final String[] ACTUATOR_PUBLIC_LIST = {
+            "/actuator/health/**"
+    };
+    /**
+     * Single-segment paths that are never short keys, even if they look like one.
+     */
+    public static final String[] RESERVED_LIST = {
+            "/actuator",
+            "/admin",
+            "/auth",
+            "/error",
+            "/stats"
+    };
     public static final String USER_ROLE = "USER";
     public static final String ADMIN_ROLE = "ADMIN";
 
 
+    /**
+     * Configures the security filter chain for public redirects.
+     * <p>
+     * Redirects are anonymous and stateless, so this chain drops the JWT filter, CSRF, the
+     * security context, anonymous authentication, the request cache, session management and
+     * logout. Only the response headers filter is kept. It is ordered before
+     * {@link #securityFilterChain(HttpSecurity)} and matches nothing but {@code GET} of a single
+     * path segment with the key syntax, see {@link #redirectMatcher(ShortUrlConfig)}.
+     * </p>
+     *
+     * @param http           the HttpSecurity instance to configure.
+     * @param shortUrlConfig the key alphabet and length.
+     * @return the SecurityFilterChain instance.
+     * @throws Exception if an error occurs during configuration.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain redirectFilterChain(HttpSecurity http, ShortUrlConfig shortUrlConfig) throws Exception {
+        http
+                .securityMatcher(redirectMatcher(shortUrlConfig))
+                .cors(AbstractHttpConfigurer::disable)
+                .csrf(AbstractHttpConfigurer::disable)
+                .securityContext(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .sessionManagement(AbstractHttpConfigurer::disable)
+                .servletApi(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .exceptionHandling(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    /**
+     * Matches {@code GET /{key}} where the key consists of {@code allowedCharacters} and is
+     * {@code keyLength} to {@code keyLength + MAX_EXTRA_KEY_LENGTH} long, with any query string,
+     * except for the {@link #RESERVED_LIST} paths.
+     *
+     * @param shortUrlConfig the key alphabet and length.
+     * @return the request matcher of the redirect chain.
+     */
+    static RequestMatcher redirectMatcher(ShortUrlConfig shortUrlConfig) {
+        StringBuilder characters = new StringBuilder();
+        shortUrlConfig.getAllowedCharacters().chars().distinct().forEach(c -> {
+            if (!Character.isLetterOrDigit(c)) {
+                characters.append('\\');
+            }
+            characters.appendCodePoint(c);
+        });
+        String pattern = "/[" + characters + "]{" + shortUrlConfig.getKeyLength() + ","
+                + (shortUrlConfig.getKeyLength() + ShortUrlConfig.MAX_EXTRA_KEY_LENGTH) + "}(\\?.*)?";
+        RequestMatcher reserved = new OrRequestMatcher(Arrays.stream(RESERVED_LIST)
+                .map(path -> (RequestMatcher) antMatcher(path))
+                .toList());
+        return new AndRequestMatcher(new RegexRequestMatcher(pattern, HttpMethod.GET.name()),
+                new NegatedRequestMatcher(reserved));
+    }
+
     /**
      * Configures the security filter chain.
      * <p>
@@ -66,6 +154,7 @@ public class SecurityConfig {
      */
 
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .cors(AbstractHttpConfigurer::disable)
@@ -73,8 +162,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests(
                         auth -> auth
                                 .requestMatchers(USER_LIST).permitAll()
-                                .requestMatchers(HttpMethod.GET,"/*").permitAll()
+                                .requestMatchers("/admin/**").hasRole(ADMIN_ROLE)
+                                .requestMatchers(ACTUATOR_PUBLIC_LIST).permitAll()
+                                .requestMatchers("/actuator/**").hasRole(ADMIN_ROLE)
                                 .requestMatchers(HttpMethod.POST,"/createUrl").hasRole(USER_ROLE)
+                                .requestMatchers(HttpMethod.POST,"/createUrls").hasRole(USER_ROLE)
+                                .requestMatchers(HttpMethod.POST,"/importUrls").hasRole(USER_ROLE)
+                                .requestMatchers(HttpMethod.GET,"/stats/*").hasRole(USER_ROLE)
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(manager -> manager.sessionCreationPolicy(STATELESS))
@@ -82,6 +176,22 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Keeps the servlet container from registering {@link JwtFilter} on its own.
+     * <p>
+     * As a {@code @Component} filter it would otherwise run for every request, redirects
+     * included, in addition to its place in {@link #securityFilterChain(HttpSecurity)}.
+     * </p>
+     *
+     * @return a disabled registration for the JWT filter.
+     */
+    @Bean
+    public FilterRegistrationBean<JwtFilter> jwtFilterRegistration() {
+        FilterRegistrationBean<JwtFilter> registration = new FilterRegistrationBean<>(jwtFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
 //    @Bean
 //    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 //       return http.csrf(AbstractHttpConfigurer::disable)
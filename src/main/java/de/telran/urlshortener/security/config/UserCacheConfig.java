@@ -0,0 +1,29 @@
+package de.telran.urlshortener.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the user lookup cache in {@code UserService}.
+ * <p>
+ * Invalidation is local to this instance, so {@code expireAfterWrite} bounds how long a
+ * change made through another instance can stay unseen here.
+ * </p>
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration
+@ConfigurationProperties(prefix = "security.user-cache")
+@Getter
+@Setter
+public class UserCacheConfig {
+    private boolean enabled = true;
+    private long maximumSize = 10_000;
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
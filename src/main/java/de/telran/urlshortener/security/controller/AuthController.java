@@ -1,6 +1,7 @@
 package de.telran.urlshortener.security.controller;
 
 import de.telran.urlshortener.security.dto.UserDto;
+import de.telran.urlshortener.security.exception.LoginThrottledException;
 import de.telran.urlshortener.security.exception.ResponseException;
 import de.telran.urlshortener.security.jwt.dto.JwtRequest;
 import de.telran.urlshortener.security.jwt.dto.JwtRequestRefresh;
@@ -8,6 +9,7 @@ import de.telran.urlshortener.security.jwt.dto.JwtResponse;
 import de.telran.urlshortener.security.service.AuthService;
 import jakarta.security.auth.message.AuthException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -67,4 +69,18 @@ public class AuthController {
         UserDto userDto = authService.createUser(userCredentialsDto);
         return ResponseEntity.ofNullable(userDto);
     }
+
+    /**
+     * Answers a throttled login directly with 429 or 503 and a Retry-After hint, so the
+     * rejection stays as cheap as possible.
+     *
+     * @param e the throttling exception.
+     * @return an empty response with the status of the exception.
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<Void> loginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
@@ -0,0 +1,32 @@
+package de.telran.urlshortener.security.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Row of the {@code refresh_tokens} table used by the JDBC refresh token store. Only the
+ * SHA-256 digest of the token is stored.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at"))
+public class RefreshTokenEntity {
+
+    @Id
+    @Column(name = "login")
+    private String login;
+
+    @Column(name = "token_digest", length = 44, nullable = false)
+    private String tokenDigest;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+}
@@ -12,7 +12,7 @@ import java.time.ZonedDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "USERS")
+@Table(name = "USERS", indexes = @Index(name = "idx_users_login", columnList = "login"))
 public class UserEntity {
 
     @Id
@@ -0,0 +1,20 @@
+package de.telran.urlshortener.security.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a login is turned away because the password worker pool is saturated:
+ * {@link HttpStatus#TOO_MANY_REQUESTS} when its queue is full,
+ * {@link HttpStatus#SERVICE_UNAVAILABLE} when the password was not verified in time.
+ */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public LoginThrottledException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
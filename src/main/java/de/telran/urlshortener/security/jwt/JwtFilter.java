@@ -1,6 +1,6 @@
 package de.telran.urlshortener.security.jwt;
 
-import io.jsonwebtoken.Claims;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
@@ -20,6 +20,8 @@ import java.io.IOException;
  * <p>
  * This filter extends {@link GenericFilterBean} to intercept requests, extract JWT token,
  * validate the token, and set the authentication in the security context.
+ * Verification goes through {@link VerifiedTokenCache}, so a token is parsed at most once
+ * while it is cached.
  * </p>
  *
  * @Slf4j                 - Lombok annotation for generating a logger field.
@@ -44,9 +46,14 @@ public class JwtFilter extends GenericFilterBean {
     private static final String AUTHORIZATION = "Authorization";
 
     /**
-     * The JWT provider bean for validating JWT tokens and extracting claims.
+     * The cache of verified tokens, which validates JWT tokens and extracts claims on a miss.
      */
-    private final JwtProvider jwtProvider;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * The metrics recording verification latency by outcome.
+     */
+    private final UrlShortenerMetrics metrics;
 
     /**
      * Intercepts a request, extracts and validates the JWT token, and sets the authentication.
@@ -61,11 +68,15 @@ public class JwtFilter extends GenericFilterBean {
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain fc)
             throws IOException, ServletException {
         final String token = getTokenFromRequest((HttpServletRequest) request);
-        if (token != null && jwtProvider.validateAccessToken(token)) {
-            final Claims claims = jwtProvider.getAccessClaims(token);
-            final JwtAuthentication jwtInfoToken = JwtUtils.generate(claims);
-            jwtInfoToken.setAuthenticated(true);
-            SecurityContextHolder.getContext().setAuthentication(jwtInfoToken);
+        if (token != null) {
+            final long start = System.nanoTime();
+            final JwtAuthentication jwtInfoToken = verifiedTokenCache.authenticate(token);
+            if (jwtInfoToken != null) {
+                SecurityContextHolder.getContext().setAuthentication(jwtInfoToken);
+                UrlShortenerMetrics.recordSince(metrics.getJwtValid(), start);
+            } else {
+                UrlShortenerMetrics.recordSince(metrics.getJwtInvalid(), start);
+            }
         }
         fc.doFilter(request, response);
     }
@@ -10,11 +10,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * Component for handling JWT (JSON Web Token) operations.
@@ -36,6 +37,11 @@ import java.util.Date;
 @Component
 public class JwtProvider {
 
+    /**
+     * Lifetime of a refresh token.
+     */
+    public static final Duration REFRESH_TOKEN_TTL = Duration.ofDays(30);
+
     /**
      * Secret key for signing access tokens.
      */
@@ -46,6 +52,16 @@ public class JwtProvider {
      */
     private final SecretKey jwtRefreshSecret;
 
+    /**
+     * Parser verifying access tokens; built once, it is immutable and thread-safe.
+     */
+    private final JwtParser accessParser;
+
+    /**
+     * Parser verifying refresh tokens; built once, it is immutable and thread-safe.
+     */
+    private final JwtParser refreshParser;
+
     /**
      * Constructor to initialize JwtProvider with secret keys for access and refresh tokens.
      *
@@ -59,6 +75,8 @@ public class JwtProvider {
     ) {
         this.jwtAccessSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtAccessSecret));
         this.jwtRefreshSecret = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret));
+        this.accessParser = Jwts.parser().verifyWith(this.jwtAccessSecret).build();
+        this.refreshParser = Jwts.parser().verifyWith(this.jwtRefreshSecret).build();
     }
 
     /**
@@ -88,7 +106,7 @@ public class JwtProvider {
      */
     public String generateRefreshToken(@NonNull UserDto userDto) {
         final LocalDateTime now = LocalDateTime.now();
-        final Instant refreshExpirationInstant = now.plusDays(30).atZone(ZoneId.systemDefault()).toInstant();
+        final Instant refreshExpirationInstant = now.plus(REFRESH_TOKEN_TTL).atZone(ZoneId.systemDefault()).toInstant();
         final Date refreshExpiration = Date.from(refreshExpirationInstant);
         return Jwts.builder()
                 .setSubject(userDto.getLogin())
@@ -104,7 +122,7 @@ public class JwtProvider {
      * @return true if the token is valid, false otherwise.
      */
     public boolean validateAccessToken(@NonNull String accessToken) {
-        return validateToken(accessToken, jwtAccessSecret);
+        return parseToken(accessToken, accessParser) != null;
     }
 
     /**
@@ -114,23 +132,39 @@ public class JwtProvider {
      * @return true if the token is valid, false otherwise.
      */
     public boolean validateRefreshToken(@NonNull String refreshToken) {
-        return validateToken(refreshToken, jwtRefreshSecret);
+        return parseToken(refreshToken, refreshParser) != null;
     }
 
     /**
-     * Validates a token with a specified secret key.
+     * Verifies an access token and returns its claims in a single parse.
      *
-     * @param token the token to validate.
-     * @param secret the secret key used for validation.
-     * @return true if the token is valid, false otherwise.
+     * @param accessToken the access token.
+     * @return the claims if the token is valid, an empty Optional otherwise.
      */
-    private boolean validateToken(@NonNull String token, @NonNull Key secret) {
+    public Optional<Claims> parseAccessClaims(@NonNull String accessToken) {
+        return Optional.ofNullable(parseToken(accessToken, accessParser));
+    }
+
+    /**
+     * Verifies a refresh token and returns its claims in a single parse.
+     *
+     * @param refreshToken the refresh token.
+     * @return the claims if the token is valid, an empty Optional otherwise.
+     */
+    public Optional<Claims> parseRefreshClaims(@NonNull String refreshToken) {
+        return Optional.ofNullable(parseToken(refreshToken, refreshParser));
+    }
+
+    /**
+     * Verifies a token with the given parser.
+     *
+     * @param token the token to verify.
+     * @param parser the parser holding the verification key.
+     * @return the claims if the token is valid, null otherwise.
+     */
+    private Claims parseToken(@NonNull String token, @NonNull JwtParser parser) {
         try {
-            Jwts.parser()
-                    .setSigningKey(secret)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException expEx) {
             log.error("Token expired", expEx);
         } catch (UnsupportedJwtException unsEx) {
@@ -142,7 +176,7 @@ public class JwtProvider {
         } catch (Exception e) {
             log.error("invalid token", e);
         }
-        return false;
+        return null;
     }
 
     /**
@@ -152,7 +186,7 @@ public class JwtProvider {
      * @return the claims extracted from the token.
      */
     public Claims getAccessClaims(@NonNull String token) {
-        return getClaims(token, jwtAccessSecret);
+        return getClaims(token, accessParser);
     }
 
     /**
@@ -162,23 +196,18 @@ public class JwtProvider {
      * @return the claims extracted from the token.
      */
     public Claims getRefreshClaims(@NonNull String token) {
-        return getClaims(token, jwtRefreshSecret);
+        return getClaims(token, refreshParser);
     }
 
     /**
-     * Extracts claims from a token using a specified secret key.
+     * Extracts claims from a token using the given parser.
      *
      * @param token the token.
-     * @param secret the secret key used for extracting claims.
+     * @param parser the parser holding the verification key.
      * @return the claims extracted from the token.
      */
-    private Claims getClaims(@NonNull String token, @NonNull Key secret) {
-        return Jwts.parser()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private Claims getClaims(@NonNull String token, @NonNull JwtParser parser) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
 }
-
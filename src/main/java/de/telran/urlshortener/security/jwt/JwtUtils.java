@@ -3,13 +3,17 @@ package de.telran.urlshortener.security.jwt;
 import io.jsonwebtoken.Claims;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Utility class for handling JWT-related operations.
  * <p>
- * This utility class provides a method for generating a {@link JwtAuthentication} object from JWT claims.
+ * This utility class provides a method for generating a {@link JwtAuthentication} object from JWT claims
+ * and a digest for keeping tokens out of caches and storage in raw form.
  * </p>
  *
  * @Component - Indicates that an annotated class is a component. Such classes are considered as candidates
@@ -35,15 +39,41 @@ public class JwtUtils {
     public static JwtAuthentication generate(Claims claims) {
         // Extract the username from the claims
         String username = claims.getSubject();
+        // Create and return a JwtAuthentication object with the extracted information
+        return new JwtAuthentication(username, roles(claims));
+    }
+
+    /**
+     * Extracts the role names from JWT claims.
+     *
+     * @param claims the JWT claims.
+     * @return an unmodifiable list of the role names.
+     */
+    public static List<String> roles(Claims claims) {
         // Extract the roles list from the claims
         List<?> rolesObjectList = claims.get("roles", List.class);
         // Convert the roles list to a list of strings
-        List<String> roles = rolesObjectList.stream()
+        return rolesObjectList.stream()
                 .map(Object::toString)
-                .collect(Collectors.toList());
-        // Create and return a JwtAuthentication object with the extracted information
-        return new JwtAuthentication(username, roles);
+                .toList();
     }
-}
-
 
+    /**
+     * Computes the SHA-256 digest of a token.
+     * <p>
+     * Caches and stores key tokens by this digest, so a leaked cache or table never exposes
+     * usable bearer tokens.
+     * </p>
+     *
+     * @param token the JWT token.
+     * @return the Base64-encoded SHA-256 digest of the token (44 characters).
+     */
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
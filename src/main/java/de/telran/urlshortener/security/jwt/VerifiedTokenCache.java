@@ -0,0 +1,127 @@
+package de.telran.urlshortener.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bounded cache of already verified access tokens.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token, so raw bearer tokens are never kept in
+ * memory, and each entry expires exactly at the token's {@code exp} claim. A client that repeats
+ * the same token therefore pays for signature verification and claims parsing once per token
+ * instead of once per request. Tokens that fail verification are not cached.
+ * </p>
+ * <p>
+ * Only the immutable subject, roles and expiry are cached; every call gets a new
+ * {@link JwtAuthentication}, so a request that changes its authentication cannot affect
+ * other requests with the same token.
+ * </p>
+ *
+ * @Slf4j                 - Lombok annotation for generating a logger field.
+ * @Component             - Indicates that an annotated class is a "component".
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    /**
+     * The JWT provider used to verify tokens on a cache miss.
+     */
+    private final JwtProvider jwtProvider;
+
+    /**
+     * Verified token contents by token digest.
+     */
+    private final Cache<String, VerifiedToken> cache;
+
+    private final boolean enabled;
+
+    public VerifiedTokenCache(
+            JwtProvider jwtProvider,
+            @Value("${jwt.verified-cache.enabled:true}") boolean enabled,
+            @Value("${jwt.verified-cache.maximum-size:10000}") long maximumSize
+    ) {
+        this.jwtProvider = jwtProvider;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token,
+                                                  long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the authentication for a valid access token, verifying it only on a cache miss.
+     *
+     * @param token the access token.
+     * @return a new authenticated JwtAuthentication, or null if the token is invalid.
+     */
+    public JwtAuthentication authenticate(String token) {
+        VerifiedToken verified = enabled
+                ? cache.get(JwtUtils.digest(token), digest -> verify(token))
+                : verify(token);
+        return verified != null ? verified.toAuthentication() : null;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * @return the verified token contents, or null if the token is invalid.
+     */
+    private VerifiedToken verify(String token) {
+        return jwtProvider.parseAccessClaims(token)
+                .filter(claims -> claims.getExpiration() != null)
+                .map(VerifiedToken::of)
+                .orElse(null);
+    }
+
+    private record VerifiedToken(String username, List<String> roles, Instant expiresAt) {
+
+        static VerifiedToken of(Claims claims) {
+            return new VerifiedToken(claims.getSubject(), JwtUtils.roles(claims), claims.getExpiration().toInstant());
+        }
+
+        JwtAuthentication toAuthentication() {
+            final JwtAuthentication authentication = new JwtAuthentication(username, roles);
+            authentication.setAuthenticated(true);
+            return authentication;
+        }
+    }
+}
@@ -5,11 +5,13 @@ import de.telran.urlshortener.security.entity.UserEntity;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Repository
 public interface UserRepository extends CrudRepository<UserEntity,Long> {
+    @Transactional(readOnly = true)
     @Query("SELECT u FROM UserEntity u WHERE u.login=?1")
     List<UserEntity> findByLogin(String login);
 }
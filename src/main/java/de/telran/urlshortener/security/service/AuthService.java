@@ -1,6 +1,8 @@
 package de.telran.urlshortener.security.service;
 
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
 import de.telran.urlshortener.security.dto.UserDto;
+import de.telran.urlshortener.security.exception.LoginThrottledException;
 import de.telran.urlshortener.security.exception.ResponseException;
 import de.telran.urlshortener.security.jwt.JwtAuthentication;
 import de.telran.urlshortener.security.jwt.JwtProvider;
@@ -11,11 +13,9 @@ import jakarta.security.auth.message.AuthException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
 
 /**
  * Service class for handling authentication-related operations.
@@ -42,16 +42,24 @@ public class AuthService {
     private final UserService userService;
 
     /**
-     * A map for storing refresh tokens against user logins.
+     * The store holding the current refresh token of each user.
      */
-    private final Map<String, String> refreshStorage = new HashMap<>();
+    private final RefreshTokenStore refreshTokenStore;
 
     /**
      * The JWT provider for generating and validating JWT tokens.
      */
     private final JwtProvider jwtProvider;
 
-    private final PasswordEncoder passwordEncoder;
+    /**
+     * The bounded worker pool that checks passwords off the request thread.
+     */
+    private final PasswordVerifier passwordVerifier;
+
+    /**
+     * The metrics recording login latency by outcome.
+     */
+    private final UrlShortenerMetrics metrics;
 
     /**
      * Handles user login and returns JWT tokens upon successful authentication.
@@ -59,15 +67,31 @@ public class AuthService {
      * @param authRequest the authentication request containing user credentials.
      * @return a JwtResponse containing the generated access and refresh tokens.
      * @throws AuthException if the user is not found or the password is incorrect.
+     * @throws LoginThrottledException if the password cannot be checked because too many logins are in progress.
      */
     public JwtResponse login(JwtRequest authRequest) throws AuthException {
+        final long start = System.nanoTime();
+        try {
+            final JwtResponse response = authenticate(authRequest);
+            UrlShortenerMetrics.recordSince(metrics.getLoginSuccess(), start);
+            return response;
+        } catch (LoginThrottledException e) {
+            UrlShortenerMetrics.recordSince(metrics.getLoginThrottled(), start);
+            throw e;
+        } catch (AuthException e) {
+            UrlShortenerMetrics.recordSince(metrics.getLoginFailure(), start);
+            throw e;
+        }
+    }
+
+    private JwtResponse authenticate(JwtRequest authRequest) throws AuthException {
         final UserDto userDto = userService.getByLogin(authRequest.getLogin())
                 .orElseThrow(() -> new AuthException("User is not found"));
 //        if (userDto.getPassword().equals(authRequest.getPassword())) {
-        if (passwordEncoder.matches(authRequest.getPassword(), userDto.getPassword())) {
+        if (passwordVerifier.matches(authRequest.getPassword(), userDto.getPassword())) {
             final String accessToken = jwtProvider.generateAccessToken(userDto);
             final String refreshToken = jwtProvider.generateRefreshToken(userDto);
-            refreshStorage.put(userDto.getLogin(), refreshToken);
+            refreshTokenStore.save(userDto.getLogin(), refreshToken, refreshExpiration());
             return new JwtResponse(accessToken, refreshToken);
         } else {
             throw new AuthException("Wrong password");
@@ -90,16 +114,13 @@ public class AuthService {
      * @throws AuthException if the user is not found.
      */
     public JwtResponse getAccessToken(@NonNull String refreshToken) throws AuthException {
-        // Validate the provided refresh token
-        if (jwtProvider.validateRefreshToken(refreshToken)) {
-            // Extract claims from the refresh token
-            final Claims claims = jwtProvider.getRefreshClaims(refreshToken);
+        // Validate the provided refresh token and extract its claims in one parse
+        final Claims claims = jwtProvider.parseRefreshClaims(refreshToken).orElse(null);
+        if (claims != null) {
             // Get the user login from the token claims
             final String login = claims.getSubject();
-            // Retrieve the stored refresh token for the user
-            final String savedRefreshToken = refreshStorage.get(login);
-            // Compare the stored refresh token with the provided token
-            if (savedRefreshToken != null && savedRefreshToken.equals(refreshToken)) {
+            // Compare the stored refresh token of the user with the provided token
+            if (refreshTokenStore.matches(login, refreshToken)) {
                 // Fetch the user data
                 final UserDto userDto = userService.getByLogin(login)
                         .orElseThrow(() -> new AuthException("User is not found"));
@@ -121,7 +142,8 @@ public class AuthService {
      * If the token is valid, it extracts the user login from the token claims,
      * retrieves the stored refresh token for the user, and compares it with the provided token.
      * If they match, it fetches the user data, generates new access and refresh tokens,
-     * updates the stored refresh token for the user, and returns a {@link JwtResponse} with the new tokens.
+     * atomically replaces the stored refresh token for the user, and returns a {@link JwtResponse}
+     * with the new tokens. A refresh token can therefore be used for only one refresh.
      * If any of the validation steps fail, it throws an {@link AuthException} with a message indicating
      * an invalid JWT token.
      * </p>
@@ -131,26 +153,24 @@ public class AuthService {
      * @throws AuthException if the refresh token is invalid or the user is not found.
      */
     public JwtResponse refresh(@NonNull String refreshToken) throws AuthException {
-        // Validate the provided refresh token
-        if (jwtProvider.validateRefreshToken(refreshToken)) {
-            // Extract claims from the refresh token
-            final Claims claims = jwtProvider.getRefreshClaims(refreshToken);
+        // Validate the provided refresh token and extract its claims in one parse
+        final Claims claims = jwtProvider.parseRefreshClaims(refreshToken).orElse(null);
+        if (claims != null) {
             // Get the user login from the token claims
             final String login = claims.getSubject();
-            // Retrieve the stored refresh token for the user
-            final String savedRefreshToken = refreshStorage.get(login);
-            // Compare the stored refresh token with the provided token
-            if (savedRefreshToken != null && savedRefreshToken.equals(refreshToken)) {
+            // Compare the stored refresh token of the user with the provided token
+            if (refreshTokenStore.matches(login, refreshToken)) {
                 // Fetch the user data
                 final UserDto userDto = userService.getByLogin(login)
                         .orElseThrow(() -> new AuthException("User is not found"));
                 // Generate new access and refresh tokens
                 final String accessToken = jwtProvider.generateAccessToken(userDto);
                 final String newRefreshToken = jwtProvider.generateRefreshToken(userDto);
-                // Update the stored refresh token for the user
-                refreshStorage.put(userDto.getLogin(), newRefreshToken);
-                // Return a JwtResponse with the new access and refresh tokens
-                return new JwtResponse(accessToken, newRefreshToken);
+                // Replace the stored refresh token, unless a concurrent refresh already used it
+                if (refreshTokenStore.rotate(login, refreshToken, newRefreshToken, refreshExpiration())) {
+                    // Return a JwtResponse with the new access and refresh tokens
+                    return new JwtResponse(accessToken, newRefreshToken);
+                }
             }
         }
         // Throw an AuthException if validation fails
@@ -167,6 +187,10 @@ public class AuthService {
         return (JwtAuthentication) SecurityContextHolder.getContext().getAuthentication();
     }
 
+    private static Instant refreshExpiration() {
+        return Instant.now().plus(JwtProvider.REFRESH_TOKEN_TTL);
+    }
+
     public UserDto createUser(UserDto userCredentialsDto) throws ResponseException {
         return userService.createUser(userCredentialsDto);
     }
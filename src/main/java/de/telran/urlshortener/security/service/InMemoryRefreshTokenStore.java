@@ -0,0 +1,102 @@
+package de.telran.urlshortener.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import de.telran.urlshortener.security.config.RefreshTokenStoreConfig;
+import de.telran.urlshortener.security.jwt.JwtUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * {@link RefreshTokenStore} kept in the memory of this instance.
+ * <p>
+ * Backed by a bounded Caffeine cache, whose concurrent hash table locks per bin. Logins and
+ * refreshes of different users therefore do not contend. Each entry holds only the token
+ * digest and expires exactly when its token does. A system scheduler evicts expired entries
+ * promptly, so memory stays proportional to live sessions and is capped by
+ * {@code jwt.refresh-store.maximum-size}.
+ * </p>
+ *
+ * @Component             - Indicates that an annotated class is a "component".
+ * @ConditionalOnProperty - Registers this store unless {@code jwt.refresh-store.type} selects another one.
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(prefix = "jwt.refresh-store", name = "type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    /**
+     * Stored token digests by user login.
+     */
+    private final Cache<String, StoredToken> tokens;
+
+    public InMemoryRefreshTokenStore(RefreshTokenStoreConfig config) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .scheduler(Scheduler.systemScheduler())
+                .expireAfter(new Expiry<String, StoredToken>() {
+                    @Override
+                    public long expireAfterCreate(String login, StoredToken token, long currentTime) {
+                        return token.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String login, StoredToken token,
+                                                  long currentTime, long currentDuration) {
+                        return token.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String login, StoredToken token,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public void save(String login, String refreshToken, Instant expiresAt) {
+        tokens.put(login, new StoredToken(JwtUtils.digest(refreshToken), expiresAt));
+    }
+
+    @Override
+    public boolean matches(String login, String refreshToken) {
+        StoredToken stored = tokens.getIfPresent(login);
+        return stored != null && stored.digest().equals(JwtUtils.digest(refreshToken));
+    }
+
+    @Override
+    public boolean rotate(String login, String refreshToken, String newRefreshToken, Instant expiresAt) {
+        String digest = JwtUtils.digest(refreshToken);
+        StoredToken replacement = new StoredToken(JwtUtils.digest(newRefreshToken), expiresAt);
+        boolean[] rotated = new boolean[1];
+        tokens.asMap().computeIfPresent(login, (key, stored) -> {
+            if (!stored.digest().equals(digest)) {
+                return stored;
+            }
+            rotated[0] = true;
+            return replacement;
+        });
+        return rotated[0];
+    }
+
+    public long estimatedSize() {
+        return tokens.estimatedSize();
+    }
+
+    private record StoredToken(String digest, Instant expiresAt) {
+
+        long remainingNanos() {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package de.telran.urlshortener.security.service;
+
+import de.telran.urlshortener.datasource.Workload;
+import de.telran.urlshortener.security.config.RefreshTokenStoreConfig;
+import de.telran.urlshortener.security.jwt.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link RefreshTokenStore} kept in the {@code refresh_tokens} table.
+ * <p>
+ * Tokens survive restarts and are shared by every instance using the same database. Rotation
+ * is a single conditional {@code UPDATE}, so the database decides which of two concurrent
+ * refreshes wins. Expired rows are ignored by lookups and removed by a scheduled cleanup in
+ * batches of {@code jwt.refresh-store.cleanup-batch-size}, which keeps the table bounded by
+ * live sessions without long-running deletes. Token reads and writes of logins and refreshes
+ * run on the auth connection pool.
+ * </p>
+ *
+ * @Slf4j                 - Lombok annotation for generating a logger field.
+ * @Component             - Indicates that an annotated class is a "component".
+ * @ConditionalOnProperty - Registers this store when {@code jwt.refresh-store.type=jdbc}.
+ * @RequiredArgsConstructor - Lombok annotation, generates a constructor for all final fields,
+ *                           with parameter order same as field order.
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jwt.refresh-store", name = "type", havingValue = "jdbc")
+@RequiredArgsConstructor
+public class JdbcRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String UPDATE_SQL =
+            "UPDATE refresh_tokens SET token_digest = ?, expires_at = ? WHERE login = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO refresh_tokens (login, token_digest, expires_at) VALUES (?, ?, ?)";
+    private static final String MATCH_SQL =
+            "SELECT COUNT(*) FROM refresh_tokens WHERE login = ? AND token_digest = ? AND expires_at > ?";
+    private static final String ROTATE_SQL =
+            "UPDATE refresh_tokens SET token_digest = ?, expires_at = ? "
+                    + "WHERE login = ? AND token_digest = ? AND expires_at > ?";
+    private static final String EXPIRED_SQL =
+            "SELECT login FROM refresh_tokens WHERE expires_at <= ?";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM refresh_tokens WHERE login = ? AND expires_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RefreshTokenStoreConfig config;
+
+    @Override
+    public void save(String login, String refreshToken, Instant expiresAt) {
+        String digest = JwtUtils.digest(refreshToken);
+        Timestamp expires = Timestamp.from(expiresAt);
+        Workload.AUTH.run(() -> {
+            if (jdbcTemplate.update(UPDATE_SQL, digest, expires, login) > 0) {
+                return;
+            }
+            try {
+                jdbcTemplate.update(INSERT_SQL, login, digest, expires);
+            } catch (DuplicateKeyException e) {
+                // a concurrent login of the same user inserted first
+                jdbcTemplate.update(UPDATE_SQL, digest, expires, login);
+            }
+        });
+    }
+
+    @Override
+    public boolean matches(String login, String refreshToken) {
+        Integer count = Workload.AUTH.call(() -> jdbcTemplate.queryForObject(MATCH_SQL, Integer.class,
+                login, JwtUtils.digest(refreshToken), Timestamp.from(Instant.now())));
+        return count != null && count > 0;
+    }
+
+    @Override
+    public boolean rotate(String login, String refreshToken, String newRefreshToken, Instant expiresAt) {
+        return Workload.AUTH.call(() -> jdbcTemplate.update(ROTATE_SQL,
+                JwtUtils.digest(newRefreshToken), Timestamp.from(expiresAt),
+                login, JwtUtils.digest(refreshToken), Timestamp.from(Instant.now()))) > 0;
+    }
+
+    /**
+     * Deletes expired tokens batch by batch until none are left.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.cleanup-interval-ms:60000}")
+    public void purgeExpired() {
+        int batchSize = config.getCleanupBatchSize();
+        Timestamp now = Timestamp.from(Instant.now());
+        int purged = 0;
+        List<String> expired;
+        do {
+            expired = jdbcTemplate.query(EXPIRED_SQL, ps -> {
+                ps.setTimestamp(1, now);
+                ps.setMaxRows(batchSize);
+            }, (rs, rowNum) -> rs.getString(1));
+            if (!expired.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE_EXPIRED_SQL, expired, batchSize, (ps, login) -> {
+                    ps.setString(1, login);
+                    ps.setTimestamp(2, now);
+                });
+                purged += expired.size();
+            }
+        } while (expired.size() == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.telran.urlshortener.security.service;
+
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.security.config.PasswordVerifierConfig;
+import de.telran.urlshortener.security.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks passwords on a dedicated, size-limited worker pool.
+ * <p>
+ * BCrypt is slow on purpose. Running it on request threads lets a login burst occupy every
+ * servlet worker and starve all other endpoints. Here at most {@code threads} hashes run at
+ * once, and at most {@code queueCapacity} more wait. Any further login fails at once with
+ * 429. A login still not verified after {@code timeout} fails with 503, and its task is
+ * dropped from the queue, so the pool does not hash for callers that have already gone.
+ * </p>
+ *
+ * @Slf4j                 - Lombok annotation for generating a logger field.
+ * @Component             - Indicates that an annotated class is a "component".
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeoutNanos;
+
+    /**
+     * Hash latency, excluding time spent queued.
+     */
+    private final Timer hashTimer;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder, PasswordVerifierConfig config,
+                            UrlShortenerMetrics metrics) {
+        this.passwordEncoder = passwordEncoder;
+        this.hashTimer = metrics.getPasswordHash();
+        this.timeoutNanos = config.getTimeout().toNanos();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Verifies a raw password against its stored hash on the worker pool.
+     *
+     * @param rawPassword     the password given at login.
+     * @param encodedPassword the stored hash.
+     * @return true if the password matches.
+     * @throws LoginThrottledException if the pool cannot take or finish the check in time.
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        final Future<Boolean> result;
+        try {
+            result = executor.submit(() -> hashTimer.recordCallable(
+                    () -> passwordEncoder.matches(rawPassword, encodedPassword)));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new LoginThrottledException(HttpStatus.TOO_MANY_REQUESTS, "Too many concurrent logins");
+        }
+        try {
+            return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(result);
+            timedOut.increment();
+            throw new LoginThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Password check timed out");
+        } catch (InterruptedException e) {
+            abandon(result);
+            Thread.currentThread().interrupt();
+            throw new LoginThrottledException(HttpStatus.SERVICE_UNAVAILABLE, "Password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void abandon(Future<Boolean> result) {
+        result.cancel(false);
+        // frees the queue slot right away instead of when a worker reaches the cancelled task
+        executor.remove((Runnable) result);
+    }
+}
@@ -0,0 +1,51 @@
+package de.telran.urlshortener.security.service;
+
+import java.time.Instant;
+
+/**
+ * Storage of the current refresh token of each user.
+ * <p>
+ * A user has at most one valid refresh token; saving a new one replaces the previous one.
+ * Implementations keep only a digest of the token and forget it once it expires. All methods
+ * are safe to call concurrently.
+ * </p>
+ *
+ * @author A-R
+ * @version 1.0
+ * @since 1.0
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Stores the refresh token of a user, replacing any previous one.
+     *
+     * @param login        the user login.
+     * @param refreshToken the refresh token.
+     * @param expiresAt    the moment the token expires.
+     */
+    void save(String login, String refreshToken, Instant expiresAt);
+
+    /**
+     * Checks whether the given token is the current, unexpired refresh token of a user.
+     *
+     * @param login        the user login.
+     * @param refreshToken the refresh token.
+     * @return true if the token matches the stored one.
+     */
+    boolean matches(String login, String refreshToken);
+
+    /**
+     * Atomically replaces the current refresh token of a user with a new one.
+     * <p>
+     * The replacement only happens if {@code refreshToken} is still the stored token, so two
+     * concurrent refreshes with the same token cannot both succeed.
+     * </p>
+     *
+     * @param login           the user login.
+     * @param refreshToken    the refresh token being used.
+     * @param newRefreshToken the refresh token replacing it.
+     * @param expiresAt       the moment the new token expires.
+     * @return true if the token was replaced.
+     */
+    boolean rotate(String login, String refreshToken, String newRefreshToken, Instant expiresAt);
+}
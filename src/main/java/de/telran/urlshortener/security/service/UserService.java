@@ -1,5 +1,12 @@
 package de.telran.urlshortener.security.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import de.telran.urlshortener.config.ReplicaConfig;
+import de.telran.urlshortener.datasource.ReadWriteRoutingDataSource;
+import de.telran.urlshortener.datasource.Workload;
+import de.telran.urlshortener.security.config.UserCacheConfig;
 import de.telran.urlshortener.security.dto.Role;
 import de.telran.urlshortener.security.dto.UserDto;
 import de.telran.urlshortener.security.entity.UserEntity;
@@ -23,6 +30,10 @@ import java.util.stream.Collectors;
  * <p>
  * This service provides methods for fetching user data based on login credentials.
  * It initializes a list of users for demonstration purposes.
+ * Lookups by login go through a bounded cache of already mapped users (roles parsed), so
+ * repeated logins and token refreshes do not hit the database. Unknown logins are not cached,
+ * so a user registered on another instance can log in at once. Every lookup returns its own
+ * copy of the cached user, so callers cannot change what other lookups see.
  * </p>
  *
  * @Service - Indicates that an annotated class is a service component.
@@ -39,10 +50,29 @@ public class UserService {
      */
 //    private final List<User> users;
 
+    /**
+     * Users by login; unknown logins are not cached.
+     */
+    private final Cache<String, UserDto> userCache;
+
+    private final boolean cacheEnabled;
+
+    /**
+     * Whether lookups may be served by a read replica that lags behind the primary.
+     */
+    private final boolean replicasEnabled;
+
     /**
      * Constructor initializes the list of users.
      */
-    public UserService() {
+    public UserService(UserCacheConfig userCacheConfig, ReplicaConfig replicaConfig) {
+        this.cacheEnabled = userCacheConfig.isEnabled();
+        this.replicasEnabled = replicaConfig.isEnabled();
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(userCacheConfig.getMaximumSize())
+                .expireAfterWrite(userCacheConfig.getExpireAfterWrite())
+                .recordStats()
+                .build();
 //        this.users = List.of(
 //                new User("andrei", "1234", "Андрей", "Сергеев", Collections.singleton(Role.USER)),
 //                new User("petr", "12345", "Петр", "Иванов", Collections.singleton(Role.ADMIN)),
@@ -53,8 +83,9 @@ public class UserService {
     /**
      * Fetches a user based on the login credentials provided.
      * <p>
-     * This method iterates through the list of users and returns an {@link Optional} of {@link UserDto}
-     * if a user with the specified login is found.
+     * This method looks the user up in the cache, loading it from the database on a miss, and
+     * returns an {@link Optional} of a copy of the {@link UserDto} if a user with the specified
+     * login is found.
      * </p>
      *
      * @param login the login credentials of the user.
@@ -64,7 +95,34 @@ public class UserService {
 //        return users.stream()
 //                .filter(user -> login.equals(user.getLogin()))
 //                .findFirst();
-        return getByLoginWithDb(login); // поменял поиск на бд
+        if (!cacheEnabled) {
+            return getByLoginWithDb(login);
+        }
+        UserDto cached = userCache.get(login, key -> getByLoginWithDb(key).orElse(null)); // поменял поиск на бд
+        return Optional.ofNullable(cached).map(UserService::copy);
+    }
+
+    private static UserDto copy(UserDto user) {
+        return new UserDto(user.getLogin(), user.getPassword(), user.getFirstName(), user.getLastName(),
+                user.getRoles() != null ? Set.copyOf(user.getRoles()) : null);
+    }
+
+    /**
+     * Drops the cached user, so the next lookup reads it from the database.
+     * Must be called after any change of a user's data.
+     *
+     * @param login the login of the changed user.
+     */
+    public void invalidate(@NonNull String login) {
+        userCache.invalidate(login);
+    }
+
+    public CacheStats cacheStats() {
+        return userCache.stats();
+    }
+
+    public long cacheSize() {
+        return userCache.estimatedSize();
     }
 
     // с БД
@@ -77,8 +135,16 @@ public class UserService {
         this.createUser(newUser);
     }
 
+    /**
+     * Loads a user from the database. Lookups by login are read-only and may be served by a
+     * read replica; a login the replica does not know yet, such as one registered a moment
+     * ago, is looked up once more on the primary. Runs on the auth connection pool.
+     *
+     * @param login the login of the user.
+     * @return an Optional of User if a user with the specified login is found, otherwise an empty Optional.
+     */
     public Optional<UserDto> getByLoginWithDb(@NonNull String login) {
-        List<UserEntity> userEntities = userRepository.findByLogin(login);
+        List<UserEntity> userEntities = Workload.AUTH.call(() -> findByLogin(login));
         Optional<UserDto> user = Optional.empty();
         if(userEntities !=null && !userEntities.isEmpty()) {
             UserEntity userEntity = userEntities.get(0); // берем первый
@@ -97,11 +163,20 @@ public class UserService {
         return user;
     }
 
+    private List<UserEntity> findByLogin(String login) {
+        List<UserEntity> userEntities = userRepository.findByLogin(login);
+        if (replicasEnabled && (userEntities == null || userEntities.isEmpty())) {
+            userEntities = ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findByLogin(login));
+        }
+        return userEntities;
+    }
+
     @Autowired
     private PasswordEncoder passwordEncoder;
     public UserDto createUser(UserDto userDto) throws ResponseException {
         UserDto returnUserDto = null;
-        List<UserEntity> userEntities = userRepository.findByLogin(userDto.getLogin());
+        List<UserEntity> userEntities = Workload.AUTH.call(() ->
+                ReadWriteRoutingDataSource.onPrimary(() -> userRepository.findByLogin(userDto.getLogin())));
         if(userEntities==null || userEntities.isEmpty()) {
 //            Set<Role> roles = userDto.getRoles()==null ? new HashSet<Role>(Arrays.asList(Role.USER)) : userDto.getRoles();
             Set<Role> roles = userDto.getRoles()==null ? Set.of(Role.USER) : userDto.getRoles();
@@ -114,7 +189,8 @@ public class UserService {
                     .roles(rolesStr)
                     .createdAt(ZonedDateTime.now())
                     .build();
-            UserEntity userEntityResponse = userRepository.save(userEntity);
+            UserEntity userEntityResponse = Workload.AUTH.call(() -> userRepository.save(userEntity));
+            invalidate(userEntity.getLogin());
             if(userEntityResponse != null) {
 //                Set<String> mySet = new HashSet<String>(Arrays.asList(rolesStr.split(",")));
                 Set<String> mySet = Set.of(rolesStr.split(","));
@@ -0,0 +1,134 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.ClickCounterConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind click counter for the redirect path.
+ * <p>
+ * Redirects only bump an in-memory counter per key. A scheduled flush drains the accumulated
+ * deltas and hands them to {@link ShortUrlStore#applyClickDeltas} in batches of atomic
+ * increments, so concurrent clicks are never lost to a read-modify-write race. Increments run
+ * inside {@link ConcurrentHashMap#compute} and the flush takes each counter out with an atomic
+ * remove, so every click lands either in a drained counter or in a fresh one for the next
+ * flush. Written deltas are passed on to every {@link ClickListener}, such as the
+ * time-bucketed statistics and the hot key tracker. Pending deltas are drained once more when
+ * the context shuts down.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClickCounter {
+
+    private final ShortUrlStore store;
+    private final ClickCounterConfig config;
+    private final List<ClickListener> listeners;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+
+    public void increment(String key) {
+        add(key, 1);
+    }
+
+    @Scheduled(fixedDelayString = "${short-url.clicks.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Map.Entry<String, Long>> deltas = drain();
+            if (!deltas.isEmpty()) {
+                write(deltas);
+            }
+            lastFlushMillis = System.currentTimeMillis();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Draining {} pending click counters", pending.size());
+        flush();
+    }
+
+    /**
+     * Time since the last successful flush; grows without bound while flushing is failing.
+     */
+    public Duration getFlushLag() {
+        return Duration.ofMillis(System.currentTimeMillis() - lastFlushMillis);
+    }
+
+    public int getPendingKeys() {
+        return pending.size();
+    }
+
+    private List<Map.Entry<String, Long>> drain() {
+        List<Map.Entry<String, Long>> deltas = new ArrayList<>();
+        for (String key : pending.keySet()) {
+            // once removed, no increment can reach the counter any more
+            LongAdder adder = pending.remove(key);
+            long delta = adder != null ? adder.sum() : 0;
+            if (delta != 0) {
+                deltas.add(Map.entry(key, delta));
+            }
+        }
+        return deltas;
+    }
+
+    private void add(String key, long delta) {
+        pending.compute(key, (k, adder) -> {
+            LongAdder counter = adder != null ? adder : new LongAdder();
+            counter.add(delta);
+            return counter;
+        });
+    }
+
+    private void write(List<Map.Entry<String, Long>> deltas) {
+        int batchSize = Math.max(1, config.getBatchSize());
+        int written = 0;
+        try {
+            while (written < deltas.size()) {
+                int end = Math.min(written + batchSize, deltas.size());
+                store.applyClickDeltas(deltas.subList(written, end));
+                written = end;
+            }
+        } catch (RuntimeException e) {
+            List<Map.Entry<String, Long>> unwritten = deltas.subList(written, deltas.size());
+            log.error("Click flush failed, {} keys re-queued", unwritten.size(), e);
+            unwritten.forEach(delta -> add(delta.getKey(), delta.getValue()));
+            notifyListeners(deltas.subList(0, written));
+            throw e;
+        }
+        notifyListeners(deltas);
+    }
+
+    private void notifyListeners(List<Map.Entry<String, Long>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        for (ClickListener listener : listeners) {
+            try {
+                listener.record(deltas, now);
+            } catch (RuntimeException e) {
+                log.error("Click listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package de.telran.urlshortener.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the click deltas {@link ClickCounter} has written to the database.
+ * <p>
+ * Called on the flush thread, never on the redirect path. Implementations should only
+ * aggregate in memory and return quickly.
+ * </p>
+ */
+public interface ClickListener {
+
+    /**
+     * @param deltas      clicks per short key since the previous flush.
+     * @param epochSecond the flush time.
+     */
+    void record(List<Map.Entry<String, Long>> deltas, long epochSecond);
+}
@@ -0,0 +1,257 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.ClickStatsConfig;
+import de.telran.urlshortener.dto.ClickStatsResponse;
+import de.telran.urlshortener.dto.StatsGranularity;
+import de.telran.urlshortener.entity.ClickRollupEntity;
+import de.telran.urlshortener.entity.ClickRollupId;
+import de.telran.urlshortener.exception.InvalidStatsRangeException;
+import de.telran.urlshortener.exception.ShortUrlNotFoundException;
+import de.telran.urlshortener.repository.ClickRollupRepository;
+import de.telran.urlshortener.store.ShortUrlStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Minute, hour and day click rollups per short key.
+ * <p>
+ * {@link ClickCounter} hands over every click delta it has written, so rollups never touch
+ * the redirect path. Deltas are added in memory to the three buckets that contain the flush
+ * time. A click is therefore bucketed at most one click flush interval late. A separate,
+ * slower flush upserts the accumulated buckets into {@code click_rollups} in JDBC batches
+ * within one transaction, so one row per key and bucket is written no matter how many clicks
+ * it saw. Old minute and hour rows are purged after their retention; day rows are kept. Like
+ * {@link ExpiredLinkPurger}, a purge deletes batches of {@code purgeBatchSize} rows, each in its
+ * own short transaction, and stops after {@code purgeMaxBatches} batches per granularity.
+ * </p>
+ * <p>
+ * As in {@link ClickCounter}, deltas are added inside {@code ConcurrentHashMap#compute} and
+ * the flush removes each bucket atomically, so no delta lands on a bucket already drained.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClickRollupService implements ClickListener {
+
+    private static final String UPDATE_SQL =
+            "UPDATE click_rollups SET clicks = clicks + ? WHERE short_url = ? AND granularity = ? AND bucket_start = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO click_rollups (short_url, granularity, bucket_start, clicks) VALUES (?, ?, ?, ?)";
+    private static final int DEFAULT_POINTS = 60;
+
+    private static final String PURGE_KEYS_SQL =
+            "SELECT short_url, bucket_start FROM click_rollups WHERE granularity = ? AND bucket_start < ?";
+    private static final String PURGE_SQL =
+            "DELETE FROM click_rollups WHERE short_url = ? AND granularity = ? AND bucket_start = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClickRollupRepository repository;
+    private final ShortUrlStore store;
+    private final ClickStatsConfig config;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<ClickRollupId, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Adds written click deltas to the buckets containing {@code epochSecond}.
+     */
+    @Override
+    public void record(List<Map.Entry<String, Long>> deltas, long epochSecond) {
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            long bucketStart = granularity.bucketStart(epochSecond);
+            for (Map.Entry<String, Long> delta : deltas) {
+                add(new ClickRollupId(delta.getKey(), granularity, bucketStart), delta.getValue());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${short-url.stats.flush-interval-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Map.Entry<ClickRollupId, Long>> buckets = drain();
+            if (!buckets.isEmpty()) {
+                write(buckets);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Draining {} pending click rollups", pending.size());
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${short-url.stats.purge-interval-ms:3600000}")
+    public void purge() {
+        long now = Instant.now().getEpochSecond();
+        int minutes = purge(StatsGranularity.MINUTE, now - config.getMinuteRetention().toSeconds());
+        int hours = purge(StatsGranularity.HOUR, now - config.getHourRetention().toSeconds());
+        if (minutes + hours > 0) {
+            log.info("Purged {} minute and {} hour click rollups", minutes, hours);
+        }
+    }
+
+    private int purge(StatsGranularity granularity, long cutoff) {
+        int purged = 0;
+        int deleted;
+        int batches = 0;
+        do {
+            deleted = Objects.requireNonNull(transactionTemplate.execute(status -> purgeBatch(granularity, cutoff)));
+            purged += deleted;
+        } while (deleted == config.getPurgeBatchSize() && ++batches < config.getPurgeMaxBatches());
+        return purged;
+    }
+
+    private int purgeBatch(StatsGranularity granularity, long cutoff) {
+        List<ClickRollupId> expired = jdbcTemplate.query(PURGE_KEYS_SQL, ps -> {
+            ps.setInt(1, granularity.ordinal());
+            ps.setLong(2, cutoff);
+            ps.setMaxRows(config.getPurgeBatchSize());
+        }, (rs, rowNum) -> new ClickRollupId(rs.getString(1), granularity, rs.getLong(2)));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(PURGE_SQL, expired, expired.size(), (ps, id) -> {
+            ps.setString(1, id.getKey());
+            ps.setInt(2, granularity.ordinal());
+            ps.setLong(3, id.getBucketStart());
+        });
+        return expired.size();
+    }
+
+    /**
+     * Reads the click series of a key from the rollup table, one point per bucket.
+     *
+     * @param key         the short key.
+     * @param granularity the bucket size.
+     * @param from        start of the range; defaults to 60 buckets before {@code to}.
+     * @param to          end of the range; defaults to now.
+     * @return the series, with empty buckets reported as zero.
+     * @throws InvalidStatsRangeException if {@code from} is after {@code to}.
+     * @throws ShortUrlNotFoundException if the range has no clicks and the key does not exist.
+     */
+    public ClickStatsResponse getStats(String key, StatsGranularity granularity, Instant from, Instant to) {
+        Instant until = to != null ? to : Instant.now();
+        if (from != null && from.isAfter(until)) {
+            throw new InvalidStatsRangeException("from " + from + " is after to " + until);
+        }
+        long bucketSeconds = granularity.getSeconds();
+        long end = granularity.bucketStart(until.getEpochSecond()) + bucketSeconds;
+        long earliest = end - config.getMaxPoints() * bucketSeconds;
+        long start = from != null
+                ? granularity.bucketStart(from.getEpochSecond())
+                : end - DEFAULT_POINTS * bucketSeconds;
+        start = Math.max(start, earliest);
+
+        Map<Long, Long> clicks = new HashMap<>();
+        for (ClickRollupEntity rollup : repository.findSeries(key, granularity, start, end)) {
+            clicks.put(rollup.getId().getBucketStart(), rollup.getClicks());
+        }
+        List<ClickStatsResponse.Point> points = new ArrayList<>();
+        long total = 0;
+        for (long bucket = start; bucket < end; bucket += bucketSeconds) {
+            long count = clicks.getOrDefault(bucket, 0L);
+            total += count;
+            points.add(new ClickStatsResponse.Point(Instant.ofEpochSecond(bucket), count));
+        }
+        if (total == 0 && store.findFullUrl(key) == null) {
+            throw new ShortUrlNotFoundException(key);
+        }
+        return ClickStatsResponse.builder()
+                .key(key)
+                .granularity(granularity)
+                .from(Instant.ofEpochSecond(start))
+                .to(Instant.ofEpochSecond(end))
+                .total(total)
+                .points(points)
+                .build();
+    }
+
+    public int getPendingBuckets() {
+        return pending.size();
+    }
+
+    private void add(ClickRollupId id, long delta) {
+        pending.compute(id, (k, adder) -> {
+            LongAdder bucket = adder != null ? adder : new LongAdder();
+            bucket.add(delta);
+            return bucket;
+        });
+    }
+
+    private List<Map.Entry<ClickRollupId, Long>> drain() {
+        List<Map.Entry<ClickRollupId, Long>> buckets = new ArrayList<>();
+        for (ClickRollupId id : pending.keySet()) {
+            // once removed, no delta can reach the bucket any more
+            LongAdder adder = pending.remove(id);
+            long delta = adder != null ? adder.sum() : 0;
+            if (delta != 0) {
+                buckets.add(Map.entry(id, delta));
+            }
+        }
+        return buckets;
+    }
+
+    private void write(List<Map.Entry<ClickRollupId, Long>> buckets) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(buckets));
+        } catch (RuntimeException e) {
+            buckets.forEach(bucket -> add(bucket.getKey(), bucket.getValue()));
+            if (e instanceof DuplicateKeyException) {
+                // another instance inserted some of the rows first; they are updated next time
+                log.info("Click rollup flush raced with another writer, {} buckets re-queued", buckets.size());
+                return;
+            }
+            log.error("Click rollup flush failed, {} buckets re-queued", buckets.size(), e);
+            throw e;
+        }
+    }
+
+    private void upsert(List<Map.Entry<ClickRollupId, Long>> buckets) {
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, buckets, config.getBatchSize(), (ps, bucket) -> {
+            ps.setLong(1, bucket.getValue());
+            setId(ps, 2, bucket.getKey());
+        });
+        List<Map.Entry<ClickRollupId, Long>> missing = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : updated) {
+            for (int rows : batch) {
+                if (rows == 0) {
+                    missing.add(buckets.get(index));
+                }
+                index++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing, config.getBatchSize(), (ps, bucket) -> {
+                setId(ps, 1, bucket.getKey());
+                ps.setLong(4, bucket.getValue());
+            });
+        }
+    }
+
+    private static void setId(PreparedStatement ps, int index, ClickRollupId id) throws SQLException {
+        ps.setString(index, id.getKey());
+        ps.setInt(index + 1, id.getGranularity().ordinal());
+        ps.setLong(index + 2, id.getBucketStart());
+    }
+}
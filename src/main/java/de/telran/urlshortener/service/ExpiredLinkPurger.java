@@ -0,0 +1,67 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.LinkExpiryConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired links from the {@link ShortUrlStore}.
+ * <p>
+ * Each run deletes batches of {@code purgeBatchSize} rows, every batch its own short
+ * transaction, until no expired rows are left or {@code purgeMaxBatches} batches were
+ * deleted; a backlog is worked off over the following runs instead of in one long delete.
+ * Every purged key is also evicted from the {@link RedirectCache} and recorded as a miss in
+ * the {@link KeyPrefilter}, so lookups for it are rejected without a query. The Bloom filter
+ * cannot drop single keys; purged keys leave it at its next rebuild. Several instances may
+ * purge at the same time; each row is deleted by exactly one of them.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiredLinkPurger {
+
+    private final ShortUrlStore store;
+    private final RedirectCache redirectCache;
+    private final KeyPrefilter keyPrefilter;
+    private final LinkExpiryConfig config;
+
+    private final AtomicLong purgedCount = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${short-url.expiry.purge-interval-ms:60000}")
+    public void purge() {
+        if (!config.isPurgeEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Instant now = Instant.now();
+        int purged = 0;
+        List<String> keys;
+        int batches = 0;
+        do {
+            keys = store.deleteExpired(now, config.getPurgeBatchSize());
+            for (String key : keys) {
+                redirectCache.invalidate(key);
+                keyPrefilter.recordMiss(key);
+            }
+            purged += keys.size();
+            purgedCount.addAndGet(keys.size());
+        } while (keys.size() == config.getPurgeBatchSize() && ++batches < config.getPurgeMaxBatches());
+        if (purged > 0) {
+            log.info("Purged {} expired links in {} ms", purged, System.currentTimeMillis() - started);
+        }
+    }
+
+    public long getPurgedCount() {
+        return purgedCount.get();
+    }
+}
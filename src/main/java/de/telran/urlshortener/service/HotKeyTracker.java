@@ -0,0 +1,83 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.HotKeyConfig;
+import de.telran.urlshortener.dto.HotKeyResponse;
+import de.telran.urlshortener.util.SpaceSaving;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the short keys with the highest current click rate.
+ * <p>
+ * Fed with the per-key deltas of every click flush, so the redirect path pays nothing
+ * beyond the click counter it already increments. Counts live in a {@link SpaceSaving}
+ * summary of {@code capacity} keys and decay exponentially with {@code halfLife}, so a
+ * decayed count divided by the decay time constant estimates the recent rate. The estimate
+ * lags by up to one click flush interval.
+ * </p>
+ */
+@Component
+public class HotKeyTracker implements ClickListener {
+
+    private final HotKeyConfig config;
+    private final SpaceSaving summary;
+    /**
+     * Decay time constant: a steady rate of r clicks per second converges to a count of r * tau.
+     */
+    private final double tauSeconds;
+    private long lastDecayNanos = System.nanoTime();
+
+    public HotKeyTracker(HotKeyConfig config) {
+        this.config = config;
+        this.summary = new SpaceSaving(config.getCapacity());
+        this.tauSeconds = config.getHalfLife().toMillis() / 1000.0 / Math.log(2);
+    }
+
+    @Override
+    public void record(List<Map.Entry<String, Long>> deltas, long epochSecond) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        synchronized (summary) {
+            decay();
+            for (Map.Entry<String, Long> delta : deltas) {
+                summary.add(delta.getKey(), delta.getValue());
+            }
+        }
+    }
+
+    /**
+     * @param n number of keys, capped at {@code maxResults}.
+     * @return the hottest keys, highest rate first.
+     */
+    public List<HotKeyResponse> top(int n) {
+        List<SpaceSaving.Entry> entries;
+        synchronized (summary) {
+            decay();
+            entries = summary.top(Math.max(0, Math.min(n, config.getMaxResults())));
+        }
+        double perMinute = 60 / tauSeconds;
+        return entries.stream()
+                .map(entry -> HotKeyResponse.builder()
+                        .key(entry.key())
+                        .clicksPerMinute(entry.count() * perMinute)
+                        .maxOverestimate(entry.error() * perMinute)
+                        .build())
+                .toList();
+    }
+
+    public int getTrackedKeys() {
+        synchronized (summary) {
+            return summary.size();
+        }
+    }
+
+    private void decay() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastDecayNanos) / 1e9;
+        lastDecayNanos = now;
+        summary.scale(Math.exp(-elapsedSeconds / tauSeconds));
+    }
+}
@@ -0,0 +1,65 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.entity.KeySequenceEntity;
+import de.telran.urlshortener.repository.KeySequenceRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+@Service
+public class KeySequenceService {
+
+    private final KeySequenceRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    public KeySequenceService(KeySequenceRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Leases the next block of ids from the named counter.
+     * <p>
+     * Runs in its own transaction and holds a row lock only for the read-increment-write,
+     * so the block is committed before any key from it is handed out. A missing counter is
+     * created in a separate transaction first; when several instances create it at once, the
+     * losers' primary key violation is ignored and all of them lease from the locked row.
+     * </p>
+     *
+     * @param name      the counter name.
+     * @param blockSize the number of ids to lease.
+     * @return the first id of the leased block; the block is {@code [start, start + blockSize)}.
+     */
+    public long leaseBlock(String name, int blockSize) {
+        while (true) {
+            Long start = transactionTemplate.execute(status -> {
+                Optional<KeySequenceEntity> sequence = repository.findForUpdate(name);
+                if (sequence.isEmpty()) {
+                    return null;
+                }
+                KeySequenceEntity entity = sequence.get();
+                long next = entity.getNextValue();
+                entity.setNextValue(next + blockSize);
+                return next;
+            });
+            if (start != null) {
+                return start;
+            }
+            createIfAbsent(name);
+        }
+    }
+
+    private void createIfAbsent(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.saveAndFlush(KeySequenceEntity.builder().name(name).nextValue(0L).build()));
+        } catch (DataIntegrityViolationException e) {
+            // another instance created the counter first
+        }
+    }
+}
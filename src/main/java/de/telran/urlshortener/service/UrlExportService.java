@@ -0,0 +1,135 @@
+package de.telran.urlshortener.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telran.urlshortener.dto.UrlListFormat;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.store.ShortUrlStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports {@code key, fullUrl, clickCount} of every short URL that has not expired as CSV or
+ * NDJSON.
+ * <p>
+ * Rows are streamed from {@link ShortUrlStore#scan} and written as they arrive, with a flush
+ * every {@value #FLUSH_EVERY} rows, so the heap stays flat however many URLs there are. The
+ * database stores read in pages with a short transaction each, so a slow download holds no
+ * connection between pages.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UrlExportService {
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final ShortUrlStore store;
+    private final ObjectMapper objectMapper;
+
+    public long exportUrls(UrlListFormat format, OutputStream output) throws IOException {
+        AtomicLong count = new AtomicLong();
+        Instant now = Instant.now();
+        try (RowWriter writer = format == UrlListFormat.CSV ? new CsvWriter(output) : new NdjsonWriter(output)) {
+            store.scan(entity -> {
+                if (entity.getExpiresAt() != null && !entity.getExpiresAt().isAfter(now)) {
+                    return;
+                }
+                try {
+                    writer.write(entity);
+                    if (count.incrementAndGet() % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} URLs as {}", count.get(), format);
+        return count.get();
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(ShortUrlEntity entity) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private static class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream output) throws IOException {
+            this.writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            writer.write("key,fullUrl,clickCount\n");
+        }
+
+        @Override
+        public void write(ShortUrlEntity entity) throws IOException {
+            writer.write(entity.getKey());
+            writer.write(',');
+            writer.write(quote(entity.getFullUrl()));
+            writer.write(',');
+            writer.write(String.valueOf(entity.getClickCount()));
+            writer.write('\n');
+        }
+
+        private static String quote(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream output) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(output);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ShortUrlEntity entity) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("key", entity.getKey());
+            generator.writeStringField("fullUrl", entity.getFullUrl());
+            generator.writeNumberField("clickCount", entity.getClickCount());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
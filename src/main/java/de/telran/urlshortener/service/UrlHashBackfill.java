@@ -0,0 +1,70 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.UrlHashBackfillConfig;
+import de.telran.urlshortener.store.ShortUrlStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Gives links created before {@code full_url_hash} existed the digest of their full URL.
+ * <p>
+ * Each run works through the links without a digest in id order, in batches of
+ * {@code batchSize}, each its own short write, and stops after {@code maxBatches} batches; the
+ * next run carries on from the last id. Until a run finds no link left, dedup lookups that
+ * miss the digest also look for undigested links by their exact full URL, so URLs shortened
+ * before the digest was introduced keep their key. Several instances may backfill at the same
+ * time; setting a digest twice is harmless.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UrlHashBackfill {
+
+    private final ShortUrlStore store;
+    private final UrlHashBackfillConfig config;
+
+    private long lastId;
+    private volatile boolean complete;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${short-url.hash-backfill.interval-ms:60000}")
+    public synchronized void backfill() {
+        if (complete || !config.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        long firstId = lastId;
+        for (int batches = 0; batches < config.getMaxBatches(); batches++) {
+            long last = store.backfillFullUrlHashes(lastId, config.getBatchSize());
+            if (last < 0) {
+                complete = true;
+                log.info("URL digest backfill complete");
+                break;
+            }
+            lastId = last;
+        }
+        if (lastId > firstId) {
+            log.info("Backfilled URL digests up to id {} in {} ms", lastId, System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * @return the keys of undigested links with one of these exact full URLs, by full URL;
+     * empty once the backfill is complete.
+     */
+    public Map<String, String> findKeysOfUndigestedUrls(Collection<String> fullUrls) {
+        if (complete || fullUrls.isEmpty()) {
+            return Map.of();
+        }
+        return store.findKeysOfUndigestedUrls(fullUrls);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,208 @@
+package de.telran.urlshortener.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.dto.UrlListFormat;
+import de.telran.urlshortener.exception.ImportLineTooLongException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams bulk imports of URL lists through {@link UrlShortenerService#createShortUrls}.
+ * <p>
+ * The input is read one record at a time and handed over in chunks of
+ * {@code short-url.import-chunk-size}; the results of a chunk are written as NDJSON and flushed
+ * before the next chunk is read. Reading, the database batch and writing run in lockstep on the
+ * request thread, so a slow database throttles the upload and memory use is bounded by one chunk
+ * regardless of the input size. CSV lines and NDJSON strings are read up to
+ * {@code short-url.import-max-line-length} characters; a longer one fails the import with 400,
+ * or cuts the response short if earlier chunks were already written.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UrlImportService {
+
+    private final UrlShortenerService urlShortenerService;
+    private final ShortUrlConfig config;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Imports the URLs read from {@code input} and writes one result line per URL to {@code output}.
+     * <p>
+     * CSV input carries one URL per line in the first column, an optional {@code url} header line
+     * is skipped. Lines may end with {@code \n}, {@code \r\n} or {@code \r}. NDJSON input carries one {@code {"url": "..."}} object per line.
+     * </p>
+     *
+     * @return the number of imported records.
+     * @throws ImportLineTooLongException if a CSV line or an NDJSON string is too long.
+     */
+    public long importUrls(InputStream input, UrlListFormat format, OutputStream output) throws IOException {
+        int chunkSize = Math.min(config.getImportChunkSize(), config.getMaxBatchSize());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            // only a written chunk flushes the response; a rejected first chunk can still answer 400
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            ChunkWriter writer = new ChunkWriter(generator, output, chunkSize);
+            if (format == UrlListFormat.NDJSON) {
+                readNdjson(input, writer);
+            } else {
+                readCsv(input, writer);
+            }
+            writer.flush();
+            log.info("Imported {} URLs", writer.total);
+            return writer.total;
+        }
+    }
+
+    private void readNdjson(InputStream input, ChunkWriter writer) throws IOException {
+        int maxLength = config.getImportMaxLineLength();
+        JsonFactory factory = objectMapper.getFactory().copy()
+                .setStreamReadConstraints(StreamReadConstraints.builder().maxStringLength(maxLength).build());
+        long record = 0;
+        try (JsonParser parser = factory.createParser(input);
+             MappingIterator<ShortUrlRequest> requests =
+                     objectMapper.readerFor(ShortUrlRequest.class).readValues(parser)) {
+            while (requests.hasNextValue()) {
+                record++;
+                ShortUrlRequest request = requests.nextValue();
+                if (request != null && request.getUrl() != null && request.getUrl().length() > maxLength) {
+                    throw new ImportLineTooLongException(record, maxLength);
+                }
+                writer.add(request);
+            }
+        } catch (StreamConstraintsException e) {
+            throw new ImportLineTooLongException(record + 1, maxLength);
+        } catch (JsonMappingException e) {
+            if (e.getCause() instanceof StreamConstraintsException) {
+                throw new ImportLineTooLongException(record + 1, maxLength);
+            }
+            throw e;
+        }
+    }
+
+    private void readCsv(InputStream input, ChunkWriter writer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int maxLength = config.getImportMaxLineLength();
+        StringBuilder buffer = new StringBuilder();
+        boolean first = true;
+        long record = 0;
+        for (String line = readLine(reader, buffer, maxLength, ++record); line != null;
+             line = readLine(reader, buffer, maxLength, ++record)) {
+            String url = firstColumn(line);
+            if (first && "url".equalsIgnoreCase(url)) {
+                first = false;
+                continue;
+            }
+            first = false;
+            if (!url.isEmpty()) {
+                ShortUrlRequest request = new ShortUrlRequest();
+                request.setUrl(url);
+                writer.add(request);
+            }
+        }
+    }
+
+    /**
+     * {@link BufferedReader#readLine()} that gives up after {@code maxLength} characters
+     * instead of buffering a line of any length.
+     */
+    private static String readLine(BufferedReader reader, StringBuilder buffer, int maxLength, long record)
+            throws IOException {
+        buffer.setLength(0);
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && c != '\n' && c != '\r') {
+            if (buffer.length() >= maxLength) {
+                throw new ImportLineTooLongException(record, maxLength);
+            }
+            buffer.append((char) c);
+            c = reader.read();
+        }
+        if (c == '\r') {
+            reader.mark(1);
+            if (reader.read() != '\n') {
+                reader.reset();
+            }
+        }
+        return buffer.toString();
+    }
+
+    private static String firstColumn(String line) {
+        String value = line.strip();
+        if (value.startsWith("\"")) {
+            StringBuilder unquoted = new StringBuilder(value.length());
+            for (int i = 1; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    if (i + 1 < value.length() && value.charAt(i + 1) == '"') {
+                        unquoted.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    unquoted.append(c);
+                }
+            }
+            return unquoted.toString();
+        }
+        int comma = value.indexOf(',');
+        return comma < 0 ? value : value.substring(0, comma).strip();
+    }
+
+    private class ChunkWriter {
+        private final JsonGenerator generator;
+        private final OutputStream output;
+        private final int chunkSize;
+        private final List<ShortUrlRequest> chunk;
+        private long total;
+
+        ChunkWriter(JsonGenerator generator, OutputStream output, int chunkSize) {
+            this.generator = generator;
+            this.output = output;
+            this.chunkSize = chunkSize;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void add(ShortUrlRequest request) throws IOException {
+            chunk.add(request);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            for (ShortUrlBatchResponse response : urlShortenerService.createShortUrls(chunk)) {
+                generator.writeObject(response);
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            output.flush();
+            total += chunk.size();
+            chunk.clear();
+        }
+    }
+}
@@ -1,43 +1,342 @@
 package de.telran.urlshortener.service;
 
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.LinkExpiryConfig;
+import de.telran.urlshortener.config.ReplicaConfig;
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.datasource.ReadWriteRoutingDataSource;
+import de.telran.urlshortener.datasource.Workload;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
 import de.telran.urlshortener.dto.ShortUrlRequest;
 import de.telran.urlshortener.dto.ShortUrlResponse;
 import de.telran.urlshortener.entity.ShortUrlEntity;
-import de.telran.urlshortener.repository.ShortUrlRepository;
+import de.telran.urlshortener.exception.BatchTooLargeException;
+import de.telran.urlshortener.exception.InvalidExpiryException;
+import de.telran.urlshortener.exception.ShortUrlNotFoundException;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.store.ShortUrlStore;
 import de.telran.urlshortener.util.ShortUrlUtil;
+import de.telran.urlshortener.util.UrlNormalizer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.view.RedirectView;
 
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static de.telran.urlshortener.monitoring.UrlShortenerMetrics.recordSince;
+
 @Service
 @RequiredArgsConstructor
 public class UrlShortenerService {
 
-    private final ShortUrlRepository repository;
+    private static final int MAX_KEY_ATTEMPTS = 3;
+
+    /**
+     * @param existing whether the key was created concurrently for the same URL rather than by this call.
+     */
+    private record SavedKey(String key, boolean existing) {
+    }
+
+    private final ShortUrlStore store;
     private final ShortUrlUtil util;
+    private final ShortUrlConfig config;
+    private final RedirectCache redirectCache;
+    private final KeyPrefilter keyPrefilter;
+    private final ClickCounter clickCounter;
+    private final UrlShortenerMetrics metrics;
+    private final ReplicaConfig replicaConfig;
+    private final LinkExpiryTracker expiryTracker;
+    private final LinkExpiryConfig expiryConfig;
+    private final UrlHashBackfill hashBackfill;
 
+    /**
+     * Shortens a URL, returning the existing key if the URL was shortened before. A link with
+     * a {@code ttl} or {@code expiresAt} always gets a key of its own: it has no URL digest, so
+     * it is never handed out for, or in place of, a link with another lifetime.
+     */
     public ShortUrlResponse createShortUrl(ShortUrlRequest request) {
+        return Workload.URL_WRITE.call(() -> create(request));
+    }
+
+    private ShortUrlResponse create(ShortUrlRequest request) {
+        long start = System.nanoTime();
         String fullUrl = request.getUrl();
+        Instant expiresAt = expiryOf(request, Instant.now());
+        String fullUrlHash = expiresAt == null ? UrlNormalizer.digest(fullUrl) : null;
 
-        ShortUrlEntity existingShortUrl = repository.findByFullUrl(fullUrl);
+        String existingKey = fullUrlHash != null ? store.findKeyByFullUrlHash(fullUrlHash) : null;
+        if (existingKey == null && fullUrlHash != null) {
+            existingKey = hashBackfill.findKeysOfUndigestedUrls(List.of(fullUrl)).get(fullUrl);
+        }
 
-        if (existingShortUrl != null) {
-            return ShortUrlResponse.builder().key(existingShortUrl.getKey()).build();
+        if (existingKey != null) {
+            recordSince(metrics.getCreateExisting(), start);
+            return ShortUrlResponse.builder().key(existingKey).build();
         } else {
-            String newKey = util.generateUniqueKey();
+            SavedKey saved = saveWithUniqueKey(fullUrl, fullUrlHash, expiresAt);
+            String newKey = saved.key();
+            keyPrefilter.add(newKey);
+            redirectCache.put(newKey, new ShortUrlStore.Link(fullUrl, expiresAt));
+            expiryTracker.track(newKey, expiresAt);
+            recordSince(saved.existing() ? metrics.getCreateExisting() : metrics.getCreateCreated(), start);
+            return ShortUrlResponse.builder().key(newKey).build();
+        }
+    }
+
+    /**
+     * Shortens a batch of URLs with a single dedup query and one batched insert.
+     * <p>
+     * Responses are returned in request order. If the batched insert hits a unique constraint,
+     * for example because one of the URLs was shortened concurrently, the new items are
+     * retried one by one; items that turn out to have been shortened concurrently are reported
+     * as {@code EXISTING} with the concurrently created key. Items with an expiry are never deduplicated; null items, items
+     * without a URL and items with an invalid expiry are reported as {@code INVALID}.
+     * </p>
+     *
+     * @param requests the URLs to shorten.
+     * @return one response per request, in the same order.
+     */
+    public List<ShortUrlBatchResponse> createShortUrls(List<ShortUrlRequest> requests) {
+        return Workload.URL_WRITE.call(() -> createAll(requests));
+    }
+
+    private List<ShortUrlBatchResponse> createAll(List<ShortUrlRequest> requests) {
+        if (requests.size() > config.getMaxBatchSize()) {
+            throw new BatchTooLargeException(requests.size(), config.getMaxBatchSize());
+        }
+
+        Instant now = Instant.now();
+        List<String> hashes = new ArrayList<>(requests.size());
+        Map<Integer, ShortUrlEntity> expiringEntities = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ShortUrlRequest request = requests.get(i);
+            if (request == null) {
+                hashes.add(null);
+                continue;
+            }
+            Instant expiresAt = null;
+            if (StringUtils.hasText(request.getUrl())) {
+                try {
+                    expiresAt = expiryOf(request, now);
+                } catch (InvalidExpiryException e) {
+                    hashes.add(null);
+                    continue;
+                }
+            }
+            if (expiresAt != null) {
+                expiringEntities.put(i, ShortUrlEntity.builder()
+                        .key(generateKey()).fullUrl(request.getUrl()).clickCount(0L).expiresAt(expiresAt)
+                        .build());
+                hashes.add(null);
+            } else {
+                hashes.add(StringUtils.hasText(request.getUrl()) ? UrlNormalizer.digest(request.getUrl()) : null);
+            }
+        }
+
+        Map<String, String> existingKeys = new HashMap<>();
+        Set<String> distinctHashes = hashes.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (!distinctHashes.isEmpty()) {
+            existingKeys.putAll(store.findKeysByFullUrlHashes(distinctHashes));
+            findKeysOfUndigestedUrls(requests, hashes, existingKeys);
+        }
+
+        Map<String, ShortUrlEntity> newEntities = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String hash = hashes.get(i);
+            if (hash != null && !existingKeys.containsKey(hash) && !newEntities.containsKey(hash)) {
+                newEntities.put(hash, ShortUrlEntity.builder()
+                        .key(generateKey()).fullUrl(requests.get(i).getUrl()).fullUrlHash(hash)
+                        .clickCount(0L)
+                        .build());
+            }
+        }
+        if (!newEntities.isEmpty() || !expiringEntities.isEmpty()) {
+            List<ShortUrlEntity> entities = new ArrayList<>(newEntities.values());
+            entities.addAll(expiringEntities.values());
+            for (String hash : saveBatch(entities)) {
+                existingKeys.put(hash, newEntities.remove(hash).getKey());
+            }
+        }
+
+        List<ShortUrlBatchResponse> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String url = requests.get(i) != null ? requests.get(i).getUrl() : null;
+            String hash = hashes.get(i);
+            ShortUrlBatchResponse.ShortUrlBatchResponseBuilder response = ShortUrlBatchResponse.builder().url(url);
+            if (expiringEntities.containsKey(i)) {
+                response.key(expiringEntities.get(i).getKey()).status(ShortUrlBatchResponse.Status.CREATED);
+            } else if (hash == null) {
+                response.status(ShortUrlBatchResponse.Status.INVALID);
+            } else if (existingKeys.containsKey(hash)) {
+                response.key(existingKeys.get(hash)).status(ShortUrlBatchResponse.Status.EXISTING);
+            } else {
+                String key = newEntities.get(hash).getKey();
+                // later duplicates inside the batch report the key created by the first one
+                existingKeys.put(hash, key);
+                response.key(key).status(ShortUrlBatchResponse.Status.CREATED);
+            }
+            responses.add(response.build());
+        }
+        return responses;
+    }
+
+    /**
+     * Adds the keys of links shortened before URL digests existed to {@code existingKeys}, for
+     * the URLs whose digest was not found.
+     */
+    private void findKeysOfUndigestedUrls(List<ShortUrlRequest> requests, List<String> hashes,
+                                          Map<String, String> existingKeys) {
+        if (hashBackfill.isComplete()) {
+            return;
+        }
+        Map<String, String> missedHashes = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String hash = hashes.get(i);
+            if (hash != null && !existingKeys.containsKey(hash)) {
+                missedHashes.put(requests.get(i).getUrl(), hash);
+            }
+        }
+        hashBackfill.findKeysOfUndigestedUrls(missedHashes.keySet())
+                .forEach((url, key) -> existingKeys.put(missedHashes.get(url), key));
+    }
+
+    /**
+     * @return the digests of the entities that were saved concurrently for the same URL; their
+     * key is set to the concurrently created one.
+     */
+    private Set<String> saveBatch(Collection<ShortUrlEntity> entities) {
+        Set<String> existingHashes = new HashSet<>();
+        try {
+            store.insertAll(entities);
+        } catch (DataIntegrityViolationException e) {
+            for (ShortUrlEntity entity : entities) {
+                SavedKey saved = saveWithUniqueKey(entity.getFullUrl(), entity.getFullUrlHash(), entity.getExpiresAt());
+                entity.setKey(saved.key());
+                if (saved.existing()) {
+                    existingHashes.add(entity.getFullUrlHash());
+                }
+            }
+        }
+        for (ShortUrlEntity entity : entities) {
+            keyPrefilter.add(entity.getKey());
+            redirectCache.put(entity.getKey(), new ShortUrlStore.Link(entity.getFullUrl(), entity.getExpiresAt()));
+            expiryTracker.track(entity.getKey(), entity.getExpiresAt());
+        }
+        return existingHashes;
+    }
+
+    private SavedKey saveWithUniqueKey(String fullUrl, String fullUrlHash, Instant expiresAt) {
+        for (int attempt = 1; ; attempt++) {
+            String newKey = generateKey();
             ShortUrlEntity newEntity = ShortUrlEntity.builder()
-                    .key(newKey).fullUrl(fullUrl).clickCount(0L)
+                    .key(newKey).fullUrl(fullUrl).fullUrlHash(fullUrlHash).clickCount(0L).expiresAt(expiresAt)
                     .build();
-            repository.save(newEntity);
-            return ShortUrlResponse.builder().key(newKey).build();
+            try {
+                store.insert(newEntity);
+                return new SavedKey(newKey, false);
+            } catch (DataIntegrityViolationException e) {
+                // either the same URL was just shortened concurrently or a random key collided
+                String concurrentKey = fullUrlHash == null ? null
+                        : ReadWriteRoutingDataSource.onPrimary(() -> store.findKeyByFullUrlHash(fullUrlHash));
+                if (concurrentKey != null) {
+                    metrics.getConcurrentDuplicates().increment();
+                    return new SavedKey(concurrentKey, true);
+                }
+                metrics.getKeyCollisions().increment();
+                if (attempt >= MAX_KEY_ATTEMPTS) {
+                    throw e;
+                }
+            }
         }
     }
 
     public RedirectView getFullUrl(String key) {
-        ShortUrlEntity entityInDb = repository.findByKey(key);
+        long start = System.nanoTime();
+        if (!keyPrefilter.mightExist(key)) {
+            recordSince(metrics.getRedirectRejected(), start);
+            throw new ShortUrlNotFoundException(key);
+        }
+        if (expiryTracker.isExpired(key)) {
+            recordSince(metrics.getRedirectExpired(), start);
+            throw new ShortUrlNotFoundException(key);
+        }
+        ShortUrlStore.Link link = redirectCache.get(key, this::findLink);
+        if (link == null) {
+            keyPrefilter.recordMiss(key);
+            recordSince(metrics.getRedirectNotFound(), start);
+            throw new ShortUrlNotFoundException(key);
+        }
+
+        clickCounter.increment(key);
+        recordSince(metrics.getRedirectFound(), start);
+        return new RedirectView(link.fullUrl());
+    }
+
+    /**
+     * A replica may not have replayed a key created moments ago, so with replicas configured a
+     * miss is confirmed on the primary before the key is reported as unknown. Runs on the
+     * redirect pool, which writes and logins cannot exhaust. The expiry of a loaded link is
+     * tracked, so the cache entry goes when the link does.
+     */
+    private ShortUrlStore.Link findLink(String key) {
+        ShortUrlStore.Link link = Workload.REDIRECT_READ.call(() -> {
+            ShortUrlStore.Link found = store.findLink(key);
+            if (found == null && replicaConfig.isEnabled()) {
+                found = ReadWriteRoutingDataSource.onPrimary(() -> store.findLink(key));
+                if (found != null) {
+                    metrics.getReplicaMisses().increment();
+                }
+            }
+            return found;
+        });
+        if (link == null) {
+            return null;
+        }
+        keyPrefilter.recordHit(key);
+        if (link.expiresAt() != null) {
+            expiryTracker.track(key, link.expiresAt());
+        }
+        return link;
+    }
+
+    /**
+     * @return the expiry requested by {@code ttl} or {@code expiresAt}, in whole milliseconds,
+     * or null if the link should never expire.
+     */
+    private Instant expiryOf(ShortUrlRequest request, Instant now) {
+        if (request.getTtl() != null && request.getExpiresAt() != null) {
+            throw new InvalidExpiryException("Set either ttl or expiresAt, not both");
+        }
+        Instant expiresAt;
+        try {
+            expiresAt = request.getTtl() != null ? now.plus(request.getTtl()) : request.getExpiresAt();
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new InvalidExpiryException("TTL " + request.getTtl() + " is out of range");
+        }
+        if (expiresAt == null) {
+            return null;
+        }
+        if (!expiresAt.isAfter(now)) {
+            throw new InvalidExpiryException("Expiry " + expiresAt + " is not in the future");
+        }
+        if (expiryConfig.getMaxTtl() != null && expiresAt.isAfter(now.plus(expiryConfig.getMaxTtl()))) {
+            throw new InvalidExpiryException("Expiry " + expiresAt + " is further away than " + expiryConfig.getMaxTtl());
+        }
+        return expiresAt.truncatedTo(ChronoUnit.MILLIS);
+    }
 
-        entityInDb.setClickCount(entityInDb.getClickCount() + 1);
-        repository.save(entityInDb);
-        return new RedirectView(entityInDb.getFullUrl());
+    private String generateKey() {
+        long start = System.nanoTime();
+        String key = util.generateUniqueKey();
+        recordSince(metrics.getKeyGeneration(), start);
+        return key;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * {@link ShortUrlStore} held in concurrent maps of this instance; nothing survives a restart.
+ * <p>
+ * Lookups are lock-free map reads. Inserts and purges are serialized so the key and digest
+ * uniqueness checks and the map updates happen as one step. Expiring links are also queued
+ * by expiry, so a purge only looks at links that are actually due.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "short-url.storage", name = "backend", havingValue = "memory")
+public class InMemoryShortUrlStore implements ShortUrlStore {
+
+    private record Mapping(long id, String key, String fullUrl, String fullUrlHash, LongAdder clicks,
+                           Instant expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, Mapping> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> keyByHash = new ConcurrentHashMap<>();
+    private final PriorityQueue<Mapping> byExpiry = new PriorityQueue<>(Comparator.comparing(Mapping::expiresAt));
+    private final AtomicLong ids = new AtomicLong();
+
+    @Override
+    public Link findLink(String key) {
+        Mapping mapping = byKey.get(key);
+        if (mapping == null || isExpired(mapping, Instant.now())) {
+            return null;
+        }
+        return new Link(mapping.fullUrl(), mapping.expiresAt());
+    }
+
+    @Override
+    public String findKeyByFullUrlHash(String fullUrlHash) {
+        return keyByHash.get(fullUrlHash);
+    }
+
+    @Override
+    public Map<String, String> findKeysByFullUrlHashes(Collection<String> fullUrlHashes) {
+        Map<String, String> keys = new HashMap<>();
+        for (String hash : fullUrlHashes) {
+            String key = keyByHash.get(hash);
+            if (key != null) {
+                keys.put(hash, key);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void insert(ShortUrlEntity entity) {
+        insertAll(List.of(entity));
+    }
+
+    @Override
+    public synchronized void insertAll(Collection<ShortUrlEntity> entities) {
+        Set<String> batchKeys = new HashSet<>();
+        Set<String> batchHashes = new HashSet<>();
+        for (ShortUrlEntity entity : entities) {
+            Objects.requireNonNull(entity.getFullUrl(), "fullUrl");
+            if (byKey.containsKey(entity.getKey()) || !batchKeys.add(entity.getKey())) {
+                throw new DuplicateKeyException("Short key " + entity.getKey() + " already exists");
+            }
+            String hash = entity.getFullUrlHash();
+            if (hash != null && (keyByHash.containsKey(hash) || !batchHashes.add(hash))) {
+                throw new DuplicateKeyException("URL with digest " + hash + " already exists");
+            }
+        }
+        for (ShortUrlEntity entity : entities) {
+            entity.setId(ids.incrementAndGet());
+            LongAdder clicks = new LongAdder();
+            clicks.add(entity.getClickCount() != null ? entity.getClickCount() : 0);
+            Mapping mapping = new Mapping(entity.getId(), entity.getKey(), entity.getFullUrl(),
+                    entity.getFullUrlHash(), clicks, entity.getExpiresAt());
+            byKey.put(entity.getKey(), mapping);
+            if (mapping.fullUrlHash() != null) {
+                keyByHash.put(mapping.fullUrlHash(), mapping.key());
+            }
+            if (mapping.expiresAt() != null) {
+                byExpiry.add(mapping);
+            }
+        }
+    }
+
+    @Override
+    public void applyClickDeltas(List<Map.Entry<String, Long>> deltas) {
+        for (Map.Entry<String, Long> delta : deltas) {
+            Mapping mapping = byKey.get(delta.getKey());
+            if (mapping != null) {
+                mapping.clicks().add(delta.getValue());
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<String> deleteExpired(Instant now, int limit) {
+        List<String> deleted = new ArrayList<>();
+        while (deleted.size() < limit && !byExpiry.isEmpty() && isExpired(byExpiry.peek(), now)) {
+            Mapping mapping = byExpiry.poll();
+            if (byKey.remove(mapping.key(), mapping)) {
+                if (mapping.fullUrlHash() != null) {
+                    keyByHash.remove(mapping.fullUrlHash(), mapping.key());
+                }
+                deleted.add(mapping.key());
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Keeps the best {@code limit} links of one pass over the map in a min-heap; each click
+     * count is read once, since they keep moving.
+     */
+    @Override
+    public Map<String, Link> findMostClicked(int limit) {
+        Instant now = Instant.now();
+        PriorityQueue<Map.Entry<Mapping, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        if (limit > 0) {
+            for (Mapping mapping : byKey.values()) {
+                if (!isExpired(mapping, now)) {
+                    top.add(Map.entry(mapping, mapping.clicks().sum()));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<Map.Entry<Mapping, Long>> sorted = new ArrayList<>(top);
+        sorted.sort(Map.Entry.<Mapping, Long>comparingByValue().reversed());
+        Map<String, Link> links = new LinkedHashMap<>();
+        for (Map.Entry<Mapping, Long> entry : sorted) {
+            Mapping mapping = entry.getKey();
+            links.put(mapping.key(), new Link(mapping.fullUrl(), mapping.expiresAt()));
+        }
+        return links;
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        byKey.keySet().forEach(consumer);
+    }
+
+    @Override
+    public void scan(Consumer<ShortUrlEntity> consumer) {
+        byKey.values().forEach(mapping -> consumer.accept(ShortUrlEntity.builder()
+                .id(mapping.id())
+                .key(mapping.key())
+                .fullUrl(mapping.fullUrl())
+                .fullUrlHash(mapping.fullUrlHash())
+                .clickCount(mapping.clicks().sum())
+                .expiresAt(mapping.expiresAt())
+                .build()));
+    }
+
+    private static boolean isExpired(Mapping mapping, Instant now) {
+        return mapping.expiresAt() != null && !mapping.expiresAt().isAfter(now);
+    }
+}
@@ -0,0 +1,348 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.config.StorageConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.util.UrlNormalizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * {@link ShortUrlStore} on the {@code urls} table through hand-written SQL.
+ * <p>
+ * No entities are managed: lookups select only the columns they need, inserts, click deltas
+ * and purges are JDBC batches, the key scan reads a forward-only cursor and the full scan reads
+ * keyset pages. Ids come from the {@code urls_seq}
+ * sequence in blocks of {@value #ID_BLOCK_SIZE}, handed out exactly like Hibernate's pooled
+ * optimizer does for {@link ShortUrlEntity}. Rows written by this store and by the JPA backend
+ * can therefore share one table. Lookups run in read-only transactions, so they are served by
+ * the read replicas when there are any.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "short-url.storage", name = "backend", havingValue = "jdbc")
+public class JdbcShortUrlStore implements ShortUrlStore {
+
+    static final String INCREMENT_CLICKS_SQL =
+            "UPDATE urls SET click_count = click_count + ? WHERE short_url = ?";
+    static final String SCAN_KEYS_SQL = "SELECT short_url FROM urls";
+    static final String EXPIRED_KEYS_SQL = "SELECT short_url FROM urls WHERE expires_at <= ? ORDER BY expires_at";
+    static final String DELETE_EXPIRED_SQL = "DELETE FROM urls WHERE short_url = ? AND expires_at <= ?";
+    static final String UNDIGESTED_SQL = "SELECT id, full_url FROM urls "
+            + "WHERE id > ? AND full_url_hash IS NULL AND expires_at IS NULL ORDER BY id";
+    static final String SET_HASH_SQL = "UPDATE urls SET full_url_hash = ? WHERE id = ? AND full_url_hash IS NULL";
+    static final String FIND_UNDIGESTED_KEYS_SQL = "SELECT full_url, short_url FROM urls "
+            + "WHERE full_url_hash IS NULL AND expires_at IS NULL AND full_url IN ";
+    static final String MOST_CLICKED_SQL = "SELECT short_url, full_url, expires_at FROM urls "
+            + "WHERE expires_at IS NULL OR expires_at > ? ORDER BY click_count DESC";
+
+    private static final String FIND_LINK_SQL = "SELECT full_url, expires_at FROM urls WHERE short_url = ?";
+    private static final String FIND_KEY_BY_HASH_SQL = "SELECT short_url, expires_at FROM urls WHERE full_url_hash = ?";
+    private static final String FIND_KEYS_BY_HASHES_SQL =
+            "SELECT full_url_hash, short_url, expires_at FROM urls WHERE full_url_hash IN ";
+    private static final String INSERT_SQL = "INSERT INTO urls (id, short_url, full_url, full_url_hash, click_count, expires_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SCAN_PAGE_SQL = "SELECT id, short_url, full_url, full_url_hash, click_count, expires_at "
+            + "FROM urls WHERE id > ? ORDER BY id";
+
+    /**
+     * Must match {@code allocationSize} of the {@code urls_seq} generator of {@link ShortUrlEntity}.
+     */
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int IN_LIST_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+    static final int SCAN_PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String nextIdSql;
+
+    private long nextId;
+    private long lastId = -1;
+
+    public JdbcShortUrlStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             StorageConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.nextIdSql = config.getJdbcNextIdSql();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Link findLink(String key) {
+        Instant now = Instant.now();
+        List<Link> links = jdbcTemplate.query(FIND_LINK_SQL,
+                (rs, rowNum) -> new Link(rs.getString(1), instant(rs, 2)), key);
+        return links.isEmpty() || isExpired(links.get(0).expiresAt(), now) ? null : links.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String findKeyByFullUrlHash(String fullUrlHash) {
+        Instant now = Instant.now();
+        List<String> keys = jdbcTemplate.query(FIND_KEY_BY_HASH_SQL,
+                (rs, rowNum) -> isExpired(instant(rs, 2), now) ? null : rs.getString(1), fullUrlHash);
+        return keys.isEmpty() ? null : keys.get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findKeysByFullUrlHashes(Collection<String> fullUrlHashes) {
+        Instant now = Instant.now();
+        Map<String, String> keys = new HashMap<>();
+        List<String> hashes = new ArrayList<>(fullUrlHashes);
+        for (int from = 0; from < hashes.size(); from += IN_LIST_SIZE) {
+            List<String> chunk = hashes.subList(from, Math.min(from + IN_LIST_SIZE, hashes.size()));
+            String sql = FIND_KEYS_BY_HASHES_SQL + "(" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                if (!isExpired(instant(rs, 3), now)) {
+                    keys.put(rs.getString(1), rs.getString(2));
+                }
+            }, chunk.toArray());
+        }
+        return keys;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findKeysOfUndigestedUrls(Collection<String> fullUrls) {
+        return findKeysOfUndigestedUrls(jdbcTemplate, fullUrls);
+    }
+
+    @Override
+    public long backfillFullUrlHashes(long afterId, int limit) {
+        return backfillFullUrlHashes(jdbcTemplate, transactionTemplate, afterId, limit);
+    }
+
+    @Override
+    public void insert(ShortUrlEntity entity) {
+        insertAll(List.of(entity));
+    }
+
+    @Override
+    public void insertAll(Collection<ShortUrlEntity> entities) {
+        for (ShortUrlEntity entity : entities) {
+            entity.setId(allocateId());
+            if (entity.getClickCount() == null) {
+                entity.setClickCount(0L);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, entities, Math.max(1, entities.size()), (ps, entity) -> {
+                    ps.setLong(1, entity.getId());
+                    ps.setString(2, entity.getKey());
+                    ps.setString(3, entity.getFullUrl());
+                    ps.setString(4, entity.getFullUrlHash());
+                    ps.setLong(5, entity.getClickCount());
+                    ps.setTimestamp(6, entity.getExpiresAt() != null ? Timestamp.from(entity.getExpiresAt()) : null);
+                }));
+    }
+
+    @Override
+    public void applyClickDeltas(List<Map.Entry<String, Long>> deltas) {
+        jdbcTemplate.batchUpdate(INCREMENT_CLICKS_SQL, deltas, Math.max(1, deltas.size()), (ps, delta) -> {
+            ps.setLong(1, delta.getValue());
+            ps.setString(2, delta.getKey());
+        });
+    }
+
+    @Override
+    public List<String> deleteExpired(Instant now, int limit) {
+        return transactionTemplate.execute(status -> deleteExpired(jdbcTemplate, now, limit));
+    }
+
+    @Override
+    public Map<String, Link> findMostClicked(int limit) {
+        return findMostClicked(jdbcTemplate, limit);
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(SCAN_KEYS_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            String key = rs.getString(1);
+            if (key != null) {
+                consumer.accept(key);
+            }
+        });
+    }
+
+    @Override
+    public void scan(Consumer<ShortUrlEntity> consumer) {
+        scan(jdbcTemplate, transactionTemplate, SCAN_PAGE_SIZE, consumer);
+    }
+
+    /**
+     * Selects up to {@code limit} expired keys, oldest first, and deletes them in one batch.
+     * The delete repeats the expiry condition, and only keys whose delete hit a row are
+     * returned, so several instances may purge at the same time. Callers run it in a
+     * transaction.
+     */
+    static Map<String, String> findKeysOfUndigestedUrls(JdbcTemplate jdbcTemplate, Collection<String> fullUrls) {
+        Map<String, String> keys = new HashMap<>();
+        List<String> urls = new ArrayList<>(fullUrls);
+        for (int from = 0; from < urls.size(); from += IN_LIST_SIZE) {
+            List<String> chunk = urls.subList(from, Math.min(from + IN_LIST_SIZE, urls.size()));
+            String sql = FIND_UNDIGESTED_KEYS_SQL + "(" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                keys.putIfAbsent(rs.getString(1), rs.getString(2));
+            }, chunk.toArray());
+        }
+        return keys;
+    }
+
+    /**
+     * Sets the digests of one batch in one transaction. If a digest is taken, by another link
+     * or twice within the batch, the batch is retried row by row and the rows that still
+     * conflict are skipped.
+     */
+    static long backfillFullUrlHashes(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                      long afterId, int limit) {
+        List<Map.Entry<Long, String>> hashes = jdbcTemplate.query(UNDIGESTED_SQL, ps -> {
+            ps.setLong(1, afterId);
+            ps.setMaxRows(limit);
+        }, (rs, rowNum) -> Map.entry(rs.getLong(1), UrlNormalizer.digest(rs.getString(2))));
+        if (hashes.isEmpty()) {
+            return -1;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(SET_HASH_SQL, hashes, hashes.size(), (ps, hash) -> {
+                        ps.setString(1, hash.getValue());
+                        ps.setLong(2, hash.getKey());
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            for (Map.Entry<Long, String> hash : hashes) {
+                try {
+                    jdbcTemplate.update(SET_HASH_SQL, hash.getValue(), hash.getKey());
+                } catch (DataIntegrityViolationException duplicate) {
+                    // the URL already has a digested key
+                }
+            }
+        }
+        return hashes.get(hashes.size() - 1).getKey();
+    }
+
+    /**
+     * Reads the table in primary key order, {@code pageSize} rows at a time, each page in its
+     * own short read-only transaction. The rows of a page are handed to {@code consumer} after
+     * that transaction has ended, so a slow consumer, such as a client downloading an export,
+     * holds no connection. Rows inserted behind the cursor meanwhile are not seen.
+     */
+    static void scan(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int pageSize,
+                     Consumer<ShortUrlEntity> consumer) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        long lastId = Long.MIN_VALUE;
+        List<ShortUrlEntity> page;
+        do {
+            long afterId = lastId;
+            page = readOnly.execute(status -> jdbcTemplate.query(SCAN_PAGE_SQL, ps -> {
+                ps.setLong(1, afterId);
+                ps.setMaxRows(pageSize);
+                ps.setFetchSize(pageSize);
+            }, (rs, rowNum) -> ShortUrlEntity.builder()
+                    .id(rs.getLong(1))
+                    .key(rs.getString(2))
+                    .fullUrl(rs.getString(3))
+                    .fullUrlHash(rs.getString(4))
+                    .clickCount(rs.getLong(5))
+                    .expiresAt(instant(rs, 6))
+                    .build()));
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    /**
+     * Walks the {@code click_count} index from the top and stops after {@code limit} rows.
+     */
+    static Map<String, Link> findMostClicked(JdbcTemplate jdbcTemplate, int limit) {
+        Map<String, Link> links = new LinkedHashMap<>();
+        if (limit <= 0) {
+            return links;
+        }
+        jdbcTemplate.query(MOST_CLICKED_SQL, ps -> {
+            ps.setTimestamp(1, Timestamp.from(Instant.now()));
+            ps.setMaxRows(limit);
+            ps.setFetchSize(Math.min(limit, FETCH_SIZE));
+        }, rs -> {
+            links.put(rs.getString(1), new Link(rs.getString(2), instant(rs, 3)));
+        });
+        return links;
+    }
+
+    static List<String> deleteExpired(JdbcTemplate jdbcTemplate, Instant now, int limit) {
+        Timestamp cutoff = Timestamp.from(now);
+        List<String> expired = jdbcTemplate.query(EXPIRED_KEYS_SQL, ps -> {
+            ps.setTimestamp(1, cutoff);
+            ps.setMaxRows(limit);
+        }, (rs, rowNum) -> rs.getString(1));
+        if (expired.isEmpty()) {
+            return expired;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_EXPIRED_SQL, expired, expired.size(), (ps, key) -> {
+            ps.setString(1, key);
+            ps.setTimestamp(2, cutoff);
+        });
+        List<String> deleted = new ArrayList<>(expired.size());
+        for (int i = 0; i < expired.size(); i++) {
+            int count = counts[0][i];
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                deleted.add(expired.get(i));
+            }
+        }
+        return deleted;
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    private static boolean isExpired(Instant expiresAt, Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    /**
+     * Same scheme as Hibernate's pooled optimizer: a sequence value is the upper end of a block
+     * of {@value #ID_BLOCK_SIZE} ids, except for the very first value 1, which starts at 1.
+     */
+    private synchronized long allocateId() {
+        if (nextId > lastId) {
+            long value = nextSequenceValue();
+            if (lastId < 0 && value == 1) {
+                nextId = 1;
+                lastId = nextSequenceValue();
+            } else {
+                nextId = value - ID_BLOCK_SIZE + 1;
+                lastId = value;
+            }
+        }
+        return nextId++;
+    }
+
+    private long nextSequenceValue() {
+        Long value = jdbcTemplate.queryForObject(nextIdSql, Long.class);
+        if (value == null) {
+            throw new IllegalStateException("No value from " + nextIdSql);
+        }
+        return value;
+    }
+}
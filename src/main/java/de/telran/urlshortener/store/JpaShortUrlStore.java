@@ -0,0 +1,126 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.repository.ShortUrlRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link ShortUrlStore} on the {@code urls} table through Spring Data JPA, the default backend.
+ * <p>
+ * Click deltas, purges and scans bypass the persistence context: they are plain JDBC, since
+ * Hibernate cannot batch bulk updates and has no use for managing entities that are only read
+ * once or deleted by key.
+ * Lookups run in read-only transactions, so they are served by the read replicas when there
+ * are any.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "short-url.storage", name = "backend", havingValue = "jpa", matchIfMissing = true)
+public class JpaShortUrlStore implements ShortUrlStore {
+
+    private final ShortUrlRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Link findLink(String key) {
+        ShortUrlEntity entity = repository.findByKey(key);
+        return isLive(entity, Instant.now()) ? new Link(entity.getFullUrl(), entity.getExpiresAt()) : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String findKeyByFullUrlHash(String fullUrlHash) {
+        ShortUrlEntity entity = repository.findByFullUrlHash(fullUrlHash);
+        return isLive(entity, Instant.now()) ? entity.getKey() : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findKeysByFullUrlHashes(Collection<String> fullUrlHashes) {
+        Instant now = Instant.now();
+        Map<String, String> keys = new HashMap<>();
+        repository.findByFullUrlHashIn(fullUrlHashes).stream()
+                .filter(entity -> isLive(entity, now))
+                .forEach(entity -> keys.put(entity.getFullUrlHash(), entity.getKey()));
+        return keys;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> findKeysOfUndigestedUrls(Collection<String> fullUrls) {
+        return JdbcShortUrlStore.findKeysOfUndigestedUrls(jdbcTemplate, fullUrls);
+    }
+
+    @Override
+    public long backfillFullUrlHashes(long afterId, int limit) {
+        return JdbcShortUrlStore.backfillFullUrlHashes(jdbcTemplate, transactionTemplate, afterId, limit);
+    }
+
+    @Override
+    public void insert(ShortUrlEntity entity) {
+        repository.save(entity);
+    }
+
+    @Override
+    public void insertAll(Collection<ShortUrlEntity> entities) {
+        repository.saveAll(entities);
+    }
+
+    @Override
+    public void applyClickDeltas(List<Map.Entry<String, Long>> deltas) {
+        jdbcTemplate.batchUpdate(JdbcShortUrlStore.INCREMENT_CLICKS_SQL, deltas, Math.max(1, deltas.size()), (ps, delta) -> {
+            ps.setLong(1, delta.getValue());
+            ps.setString(2, delta.getKey());
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<String> deleteExpired(Instant now, int limit) {
+        return JdbcShortUrlStore.deleteExpired(jdbcTemplate, now, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Link> findMostClicked(int limit) {
+        return JdbcShortUrlStore.findMostClicked(jdbcTemplate, limit);
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(JdbcShortUrlStore.SCAN_KEYS_SQL);
+            statement.setFetchSize(1000);
+            return statement;
+        }, rs -> {
+            String key = rs.getString(1);
+            if (key != null) {
+                consumer.accept(key);
+            }
+        });
+    }
+
+    @Override
+    public void scan(Consumer<ShortUrlEntity> consumer) {
+        JdbcShortUrlStore.scan(jdbcTemplate, transactionTemplate, JdbcShortUrlStore.SCAN_PAGE_SIZE, consumer);
+    }
+
+    private static boolean isLive(ShortUrlEntity entity, Instant now) {
+        return entity != null && (entity.getExpiresAt() == null || entity.getExpiresAt().isAfter(now));
+    }
+}
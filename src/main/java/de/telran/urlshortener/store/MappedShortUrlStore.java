@@ -0,0 +1,512 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.config.StorageConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * {@link ShortUrlStore} in append-only memory-mapped files, for redirect nodes without a database.
+ * <p>
+ * Every mapping is one record in a {@link SegmentLog}:
+ * {@code [PUT][int ordinal][key length][key][digest length][digest][int url length][url]},
+ * or {@code PUT_EXPIRING} with the same layout followed by {@code [long expires at millis]}.
+ * Expiring links have an empty digest. A batch of mappings, or a mapping with initial clicks,
+ * is appended as one record {@code [BATCH][int count]([int length][long clicks][mapping])*},
+ * so its single checksum makes replay see the whole batch or none of it. Two {@link OffsetIndex} tables point from the key and
+ * from the URL digest to the record. Click counts are a {@code long} array indexed by the
+ * ordinal, the sequence number of the mapping. Each applied batch of click deltas is appended
+ * as one record {@code [CLICKS][int count]([int ordinal][long delta])*}, each purged batch of
+ * expired links as {@code [DELETE][int count]([key length][key])*}. Indexes, counts and the
+ * queue of expiring links are rebuilt by replaying the log at startup, which also drops a
+ * torn last record. Purged records stay in their segments; the log is never compacted.
+ * A lookup probes a primitive array and compares the key in place in the mapped file; only
+ * the returned URL string is allocated, and the page cache rather than the heap holds the
+ * data.
+ * </p>
+ * <p>
+ * Lookups are lock-free; inserts and purges are serialized. Keys and digests must be ASCII, which
+ * generated keys and hex digests are.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "short-url.storage", name = "backend", havingValue = "mmap")
+public class MappedShortUrlStore implements ShortUrlStore {
+
+    private static final byte PUT = 1;
+    private static final byte CLICKS = 2;
+    private static final byte PUT_EXPIRING = 3;
+    private static final byte DELETE = 4;
+    private static final byte BATCH = 5;
+    private static final int CLICK_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int MAX_ASCII_LENGTH = 255;
+
+    private final SegmentLog segments;
+    private final OffsetIndex byKey;
+    private final OffsetIndex byHash;
+    private final boolean syncWrites;
+
+    private record Expiry(long expiresAtMillis, long position) {
+    }
+
+    /**
+     * Expiring links by expiry, guarded by the store lock; entries of links that were already
+     * purged are skipped when they come up.
+     */
+    private final PriorityQueue<Expiry> byExpiry = new PriorityQueue<>(Comparator.comparingLong(Expiry::expiresAtMillis));
+
+    /**
+     * Click counts by ordinal; grown and written only under the store lock.
+     */
+    private volatile AtomicLongArray clicks;
+    private int nextOrdinal;
+
+    public MappedShortUrlStore(StorageConfig config) throws IOException {
+        this.syncWrites = config.isMmapSyncWrites();
+        Path directory = Path.of(config.getMmapDirectory());
+        this.segments = new SegmentLog(directory, config.getMmapSegmentSize());
+        this.clicks = new AtomicLongArray(Math.max(16, config.getMmapExpectedKeys()));
+        this.byKey = new OffsetIndex(config.getMmapExpectedKeys(), new OffsetIndex.Records() {
+            @Override
+            public boolean matches(long position, String key) {
+                return asciiEquals(segments.buffer(position), keyOffset(position), key);
+            }
+
+            @Override
+            public String keyAt(long position) {
+                return ascii(segments.buffer(position), keyOffset(position));
+            }
+        });
+        this.byHash = new OffsetIndex(config.getMmapExpectedKeys(), new OffsetIndex.Records() {
+            @Override
+            public boolean matches(long position, String hash) {
+                return asciiEquals(segments.buffer(position), hashOffset(position), hash);
+            }
+
+            @Override
+            public String keyAt(long position) {
+                return ascii(segments.buffer(position), hashOffset(position));
+            }
+        });
+
+        long started = System.currentTimeMillis();
+        long records = segments.replay((position, buffer, offset, length) -> {
+            byte type = buffer.get(offset);
+            if (type == PUT || type == PUT_EXPIRING) {
+                replayMapping(position, 0);
+            } else if (type == BATCH) {
+                int count = buffer.getInt(offset + 1);
+                for (int i = 0, entry = offset + 1 + Integer.BYTES; i < count; i++) {
+                    int mapping = entry + Integer.BYTES + Long.BYTES;
+                    replayMapping(position + (mapping - offset), buffer.getLong(entry + Integer.BYTES));
+                    entry = mapping + buffer.getInt(entry);
+                }
+            } else if (type == CLICKS) {
+                int count = buffer.getInt(offset + 1);
+                for (int i = 0, entry = offset + 1 + Integer.BYTES; i < count; i++, entry += CLICK_ENTRY_BYTES) {
+                    addClicks(buffer.getInt(entry), buffer.getLong(entry + Integer.BYTES));
+                }
+            } else if (type == DELETE) {
+                int count = buffer.getInt(offset + 1);
+                for (int i = 0, entry = offset + 1 + Integer.BYTES; i < count; i++) {
+                    String key = ascii(buffer, entry);
+                    unindex(key, byKey.find(key));
+                    entry += 1 + key.length();
+                }
+            }
+        });
+        log.info("Opened short URL store in {} with {} records in {} segments in {} ms",
+                directory.toAbsolutePath(), records, segments.segmentCount(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public Link findLink(String key) {
+        long position = byKey.find(key);
+        if (position < 0) {
+            return null;
+        }
+        long expiresAt = expiresAtMillis(position);
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+        return new Link(fullUrl(position), expiresAt == Long.MAX_VALUE ? null : Instant.ofEpochMilli(expiresAt));
+    }
+
+    @Override
+    public String findKeyByFullUrlHash(String fullUrlHash) {
+        long position = fullUrlHash.isEmpty() ? -1 : byHash.find(fullUrlHash);
+        if (position < 0 || expiresAtMillis(position) <= System.currentTimeMillis()) {
+            return null;
+        }
+        return ascii(segments.buffer(position), keyOffset(position));
+    }
+
+    @Override
+    public Map<String, String> findKeysByFullUrlHashes(Collection<String> fullUrlHashes) {
+        Map<String, String> keys = new HashMap<>();
+        for (String hash : fullUrlHashes) {
+            String key = findKeyByFullUrlHash(hash);
+            if (key != null) {
+                keys.put(hash, key);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized void insert(ShortUrlEntity entity) {
+        insertAll(List.of(entity));
+    }
+
+    /**
+     * Appends the mappings as one record, so the batch is all-or-nothing on replay too; the
+     * batch must fit into one segment.
+     */
+    @Override
+    public synchronized void insertAll(Collection<ShortUrlEntity> entities) {
+        Set<String> batchKeys = new HashSet<>();
+        Set<String> batchHashes = new HashSet<>();
+        for (ShortUrlEntity entity : entities) {
+            checkNew(entity, batchKeys, batchHashes);
+            batchKeys.add(entity.getKey());
+            if (entity.getFullUrlHash() != null) {
+                batchHashes.add(entity.getFullUrlHash());
+            }
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+        int ordinal = nextOrdinal;
+        List<byte[]> mappings = new ArrayList<>(entities.size());
+        for (ShortUrlEntity entity : entities) {
+            mappings.add(mapping(entity, ordinal++));
+        }
+        ShortUrlEntity first = entities.iterator().next();
+        long[] positions = new long[mappings.size()];
+        if (mappings.size() == 1 && initialClicks(first) == 0) {
+            positions[0] = append(mappings.get(0));
+        } else {
+            int length = 1 + Integer.BYTES;
+            for (byte[] mapping : mappings) {
+                length += Integer.BYTES + Long.BYTES + mapping.length;
+            }
+            ByteBuffer record = ByteBuffer.allocate(length);
+            record.put(BATCH).putInt(mappings.size());
+            int[] offsets = new int[mappings.size()];
+            Iterator<ShortUrlEntity> batch = entities.iterator();
+            for (int i = 0; i < mappings.size(); i++) {
+                record.putInt(mappings.get(i).length).putLong(initialClicks(batch.next()));
+                offsets[i] = record.position();
+                record.put(mappings.get(i));
+            }
+            long position = append(record.array());
+            for (int i = 0; i < offsets.length; i++) {
+                positions[i] = position + offsets[i];
+            }
+        }
+        nextOrdinal = ordinal;
+        Iterator<ShortUrlEntity> batch = entities.iterator();
+        for (long position : positions) {
+            index(position);
+            addClicks(ordinal(position), initialClicks(batch.next()));
+        }
+    }
+
+    @Override
+    public synchronized void applyClickDeltas(List<Map.Entry<String, Long>> deltas) {
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES + deltas.size() * CLICK_ENTRY_BYTES);
+        record.put(CLICKS).putInt(0);
+        int count = 0;
+        for (Map.Entry<String, Long> delta : deltas) {
+            long position = byKey.find(delta.getKey());
+            if (position >= 0) {
+                record.putInt(ordinal(position)).putLong(delta.getValue());
+                count++;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        record.putInt(1, count);
+        append(Arrays.copyOf(record.array(), record.position()));
+        for (int i = 0, entry = 1 + Integer.BYTES; i < count; i++, entry += CLICK_ENTRY_BYTES) {
+            addClicks(record.getInt(entry), record.getLong(entry + Integer.BYTES));
+        }
+    }
+
+    @Override
+    public synchronized List<String> deleteExpired(Instant now, int limit) {
+        List<String> deleted = new ArrayList<>();
+        List<Long> positions = new ArrayList<>();
+        int recordLength = 1 + Integer.BYTES;
+        while (deleted.size() < limit && !byExpiry.isEmpty()
+                && byExpiry.peek().expiresAtMillis() <= now.toEpochMilli()) {
+            long position = byExpiry.poll().position();
+            String key = ascii(segments.buffer(position), keyOffset(position));
+            if (byKey.find(key) == position) {
+                deleted.add(key);
+                positions.add(position);
+                recordLength += 1 + key.length();
+            }
+        }
+        if (deleted.isEmpty()) {
+            return deleted;
+        }
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.put(DELETE).putInt(deleted.size());
+        deleted.forEach(key -> putAscii(record, key));
+        append(record.array());
+        for (int i = 0; i < deleted.size(); i++) {
+            unindex(deleted.get(i), positions.get(i));
+        }
+        return deleted;
+    }
+
+    /**
+     * Keeps the best {@code limit} positions of one pass over the key index in a min-heap and
+     * decodes only those.
+     */
+    @Override
+    public Map<String, Link> findMostClicked(int limit) {
+        long now = System.currentTimeMillis();
+        PriorityQueue<Map.Entry<Long, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        if (limit > 0) {
+            byKey.forEach(position -> {
+                if (expiresAtMillis(position) > now) {
+                    top.add(Map.entry(position, clicks.get(ordinal(position))));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            });
+        }
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(top);
+        sorted.sort(Map.Entry.<Long, Long>comparingByValue().reversed());
+        Map<String, Link> links = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> entry : sorted) {
+            long position = entry.getKey();
+            long expiresAt = expiresAtMillis(position);
+            links.put(ascii(segments.buffer(position), keyOffset(position)),
+                    new Link(fullUrl(position), expiresAt == Long.MAX_VALUE ? null : Instant.ofEpochMilli(expiresAt)));
+        }
+        return links;
+    }
+
+    @Override
+    public void forEachKey(Consumer<String> consumer) {
+        byKey.forEach(position -> consumer.accept(ascii(segments.buffer(position), keyOffset(position))));
+    }
+
+    @Override
+    public void scan(Consumer<ShortUrlEntity> consumer) {
+        byKey.forEach(position -> {
+            ByteBuffer buffer = segments.buffer(position);
+            String hash = ascii(buffer, hashOffset(position));
+            long expiresAt = expiresAtMillis(position);
+            consumer.accept(ShortUrlEntity.builder()
+                    .key(ascii(buffer, keyOffset(position)))
+                    .fullUrl(fullUrl(position))
+                    .fullUrlHash(hash.isEmpty() ? null : hash)
+                    .clickCount(clicks.get(ordinal(position)))
+                    .expiresAt(expiresAt == Long.MAX_VALUE ? null : Instant.ofEpochMilli(expiresAt))
+                    .build());
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        segments.force();
+    }
+
+    private void checkNew(ShortUrlEntity entity, Set<String> batchKeys, Set<String> batchHashes) {
+        requireAscii(entity.getKey(), "key");
+        Objects.requireNonNull(entity.getFullUrl(), "fullUrl");
+        if (batchKeys.contains(entity.getKey()) || byKey.find(entity.getKey()) >= 0) {
+            throw new DuplicateKeyException("Short key " + entity.getKey() + " already exists");
+        }
+        String hash = entity.getFullUrlHash();
+        if (hash != null) {
+            requireAscii(hash, "fullUrlHash");
+            if (hash.isEmpty()) {
+                throw new IllegalArgumentException("fullUrlHash must not be empty");
+            }
+            if (batchHashes.contains(hash) || byHash.find(hash) >= 0) {
+                throw new DuplicateKeyException("URL with digest " + hash + " already exists");
+            }
+        }
+    }
+
+    /**
+     * @return the {@code PUT} or {@code PUT_EXPIRING} record of the mapping.
+     */
+    private static byte[] mapping(ShortUrlEntity entity, int ordinal) {
+        String key = entity.getKey();
+        String hash = entity.getFullUrlHash() != null ? entity.getFullUrlHash() : "";
+        byte[] url = entity.getFullUrl().getBytes(StandardCharsets.UTF_8);
+        boolean expiring = entity.getExpiresAt() != null;
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES + 1 + key.length() + 1 + hash.length()
+                + Integer.BYTES + url.length + (expiring ? Long.BYTES : 0));
+        record.put(expiring ? PUT_EXPIRING : PUT).putInt(ordinal);
+        putAscii(record, key);
+        putAscii(record, hash);
+        record.putInt(url.length).put(url);
+        if (expiring) {
+            record.putLong(entity.getExpiresAt().toEpochMilli());
+        }
+        return record.array();
+    }
+
+    private static long initialClicks(ShortUrlEntity entity) {
+        return entity.getClickCount() != null ? entity.getClickCount() : 0;
+    }
+
+    /**
+     * Indexes a replayed mapping record and sets its initial click count.
+     */
+    private void replayMapping(long position, long initialClicks) {
+        index(position);
+        int ordinal = ordinal(position);
+        addClicks(ordinal, initialClicks);
+        nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+    }
+
+    private long append(byte[] record) {
+        try {
+            return segments.append(record, syncWrites);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Could not append to the short URL store", e);
+        }
+    }
+
+    /**
+     * Indexes the mapping record at {@code position} by key and digest and queues it by
+     * expiry. Callers hold the store lock or run the replay.
+     */
+    private void index(long position) {
+        ByteBuffer buffer = segments.buffer(position);
+        byKey.put(ascii(buffer, keyOffset(position)), position);
+        String hash = ascii(buffer, hashOffset(position));
+        if (!hash.isEmpty()) {
+            byHash.put(hash, position);
+        }
+        long expiresAt = expiresAtMillis(position);
+        if (expiresAt != Long.MAX_VALUE) {
+            byExpiry.add(new Expiry(expiresAt, position));
+        }
+    }
+
+    private void unindex(String key, long position) {
+        if (position < 0) {
+            return;
+        }
+        byKey.remove(key);
+        String hash = ascii(segments.buffer(position), hashOffset(position));
+        if (!hash.isEmpty()) {
+            byHash.remove(hash);
+        }
+    }
+
+    /**
+     * Adds to the click count of an ordinal, growing the array on first use. Callers hold the
+     * store lock or run the replay.
+     */
+    private void addClicks(int ordinal, long delta) {
+        AtomicLongArray current = clicks;
+        if (ordinal >= current.length()) {
+            AtomicLongArray grown = new AtomicLongArray(Math.max(ordinal + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            clicks = grown;
+            current = grown;
+        }
+        current.addAndGet(ordinal, delta);
+    }
+
+    private String fullUrl(long position) {
+        ByteBuffer buffer = segments.buffer(position);
+        int offset = urlOffset(position);
+        byte[] url = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, url);
+        return new String(url, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the expiry of the mapping in epoch millis, {@link Long#MAX_VALUE} if it has none.
+     */
+    private long expiresAtMillis(long position) {
+        ByteBuffer buffer = segments.buffer(position);
+        if (buffer.get(SegmentLog.offset(position)) != PUT_EXPIRING) {
+            return Long.MAX_VALUE;
+        }
+        int urlOffset = urlOffset(position);
+        return buffer.getLong(urlOffset + Integer.BYTES + buffer.getInt(urlOffset));
+    }
+
+    private int ordinal(long position) {
+        return segments.buffer(position).getInt(SegmentLog.offset(position) + 1);
+    }
+
+    private int keyOffset(long position) {
+        return SegmentLog.offset(position) + 1 + Integer.BYTES;
+    }
+
+    private int hashOffset(long position) {
+        int keyOffset = keyOffset(position);
+        return keyOffset + 1 + (segments.buffer(position).get(keyOffset) & 0xFF);
+    }
+
+    private int urlOffset(long position) {
+        int hashOffset = hashOffset(position);
+        return hashOffset + 1 + (segments.buffer(position).get(hashOffset) & 0xFF);
+    }
+
+    /**
+     * Compares the length-prefixed ASCII string at {@code offset} with {@code value}, in place.
+     */
+    private static boolean asciiEquals(ByteBuffer buffer, int offset, String value) {
+        int length = buffer.get(offset) & 0xFF;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 1 + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset) {
+        byte[] bytes = new byte[buffer.get(offset) & 0xFF];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static void putAscii(ByteBuffer record, String value) {
+        record.put((byte) value.length());
+        record.put(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void requireAscii(String value, String name) {
+        if (value == null || value.length() > MAX_ASCII_LENGTH
+                || !value.chars().allMatch(c -> c < 128)) {
+            throw new IllegalArgumentException(name + " must be ASCII of at most " + MAX_ASCII_LENGTH
+                    + " characters: " + value);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package de.telran.urlshortener.store;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash index from a string to the log position of its record.
+ * <p>
+ * Every slot is a single {@code long}: 16 bits of the key hash as a fingerprint and the
+ * position plus one, so an empty slot is zero. A removed key leaves a tombstone, a slot with
+ * position bits zero that lookups probe past; tombstones are dropped when the table is
+ * rebuilt. The keys themselves are not held; a candidate
+ * whose fingerprint matches is confirmed against the record in the log. Lookups therefore
+ * allocate nothing and mostly touch one cache line, and a million keys cost about 16 MB at
+ * most, all of it one primitive array the garbage collector never scans.
+ * </p>
+ * <p>
+ * Lookups are lock-free and may run concurrently with one writer. Slots are published with
+ * volatile writes, and a resized table replaces the old one only once it is complete.
+ * </p>
+ */
+final class OffsetIndex {
+
+    private static final double MAX_LOAD = 0.7;
+    private static final long POSITION_MASK = (1L << 48) - 1;
+    private static final long TOMBSTONE = ~POSITION_MASK;
+
+    /**
+     * Access to the keys of indexed records.
+     */
+    interface Records {
+        boolean matches(long position, String key);
+
+        String keyAt(long position);
+    }
+
+    private final Records records;
+
+    private volatile AtomicLongArray slots;
+    private int size;
+    private int tombstones;
+
+    OffsetIndex(int expectedKeys, Records records) {
+        this.records = records;
+        this.slots = new AtomicLongArray(tableSize(expectedKeys));
+    }
+
+    /**
+     * @return the position of the record with this key, or -1.
+     */
+    long find(String key) {
+        AtomicLongArray table = slots;
+        long hash = hash(key);
+        long fingerprint = hash >>> 48;
+        int mask = table.length() - 1;
+        for (int index = (int) hash & mask; ; index = (index + 1) & mask) {
+            long slot = table.get(index);
+            if (slot == 0) {
+                return -1;
+            }
+            if (slot >>> 48 == fingerprint && slot != TOMBSTONE) {
+                long position = (slot & POSITION_MASK) - 1;
+                if (records.matches(position, key)) {
+                    return position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a key that is not indexed yet. Only one thread may call this at a time.
+     */
+    void put(String key, long position) {
+        if (position < 0 || position >= POSITION_MASK) {
+            throw new IllegalArgumentException("Position out of range: " + position);
+        }
+        if (size + tombstones + 1 > slots.length() * MAX_LOAD) {
+            // grow only if live keys need it, otherwise rebuilding just clears the tombstones
+            slots = rehash(size + 1 > slots.length() * MAX_LOAD / 2 ? slots.length() * 2 : slots.length());
+            tombstones = 0;
+        }
+        insert(slots, hash(key), position);
+        size++;
+    }
+
+    /**
+     * Removes a key, leaving a tombstone in its slot. Only one thread may call this at a time,
+     * the same one that calls {@link #put}.
+     *
+     * @return false if the key was not indexed.
+     */
+    boolean remove(String key) {
+        AtomicLongArray table = slots;
+        long hash = hash(key);
+        long fingerprint = hash >>> 48;
+        int mask = table.length() - 1;
+        for (int index = (int) hash & mask; ; index = (index + 1) & mask) {
+            long slot = table.get(index);
+            if (slot == 0) {
+                return false;
+            }
+            if (slot >>> 48 == fingerprint && slot != TOMBSTONE
+                    && records.matches((slot & POSITION_MASK) - 1, key)) {
+                table.set(index, TOMBSTONE);
+                size--;
+                tombstones++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passes the position of every indexed record to {@code consumer}, in no particular order.
+     */
+    void forEach(LongConsumer consumer) {
+        AtomicLongArray table = slots;
+        for (int i = 0; i < table.length(); i++) {
+            long slot = table.get(i);
+            if (slot != 0 && slot != TOMBSTONE) {
+                consumer.accept((slot & POSITION_MASK) - 1);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private AtomicLongArray rehash(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalStateException("Index cannot grow beyond " + slots.length() + " slots");
+        }
+        AtomicLongArray table = new AtomicLongArray(capacity);
+        forEach(position -> insert(table, hash(records.keyAt(position)), position));
+        return table;
+    }
+
+    private static void insert(AtomicLongArray table, long hash, long position) {
+        int mask = table.length() - 1;
+        int index = (int) hash & mask;
+        while (table.get(index) != 0) {
+            index = (index + 1) & mask;
+        }
+        table.set(index, (hash >>> 48) << 48 | (position + 1));
+    }
+
+    /**
+     * Spreads {@link String#hashCode()}, which strings cache, over 64 bits (MurmurHash3 fmix64).
+     */
+    private static long hash(String key) {
+        long h = key.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int tableSize(int expectedKeys) {
+        long needed = (long) Math.ceil(Math.max(1, expectedKeys) / MAX_LOAD);
+        long size = Long.highestOneBit(Math.max(2, needed - 1)) << 1;
+        if (size > 1 << 30) {
+            throw new IllegalArgumentException("Too many expected keys: " + expectedKeys);
+        }
+        return (int) size;
+    }
+}
@@ -0,0 +1,222 @@
+package de.telran.urlshortener.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of records in memory-mapped segment files.
+ * <p>
+ * Each record is framed as {@code [int length][int crc32c][payload]}. The length is written
+ * last, so a zero length marks the end of a segment. Records never span segments; when one
+ * does not fit, a new segment file is started. {@link #replay} visits every intact record
+ * after startup. A record whose frame or checksum does not verify, such as a torn write after
+ * a crash, ends its segment. In the last segment it and everything behind it are zeroed, so
+ * they can never resurface behind records appended later.
+ * </p>
+ * <p>
+ * A record is addressed by its position, {@code segment << 32 | payloadOffset}. Reads use
+ * absolute buffer access and may run concurrently with one appending thread; publishing a
+ * position to readers must happen-after the append, for example through a volatile write.
+ * </p>
+ */
+@Slf4j
+final class SegmentLog {
+
+    static final int HEADER_BYTES = 8;
+    static final int MAX_SEGMENTS = 1 << 16;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.log");
+
+    private final Path directory;
+    private final int segmentSize;
+
+    private volatile MappedByteBuffer[] segments;
+
+    // append state, used by the single writer only
+    private int writeSegment;
+    private int writeOffset;
+
+    SegmentLog(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<MappedByteBuffer> mapped = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                if (Integer.parseInt(matcher.group(1)) != mapped.size()) {
+                    throw new IllegalStateException("Segment " + file + " is out of sequence");
+                }
+                mapped.add(map(file, Files.size(file)));
+            }
+        }
+        if (mapped.isEmpty()) {
+            mapped.add(map(segmentFile(0), segmentSize));
+        }
+        this.segments = mapped.toArray(new MappedByteBuffer[0]);
+    }
+
+    /**
+     * Visits every intact record in append order and positions the log behind the last one.
+     * Call once, before the first append.
+     *
+     * @return the number of records visited.
+     */
+    long replay(RecordVisitor visitor) {
+        MappedByteBuffer[] current = segments;
+        long records = 0;
+        for (int segment = 0; segment < current.length; segment++) {
+            MappedByteBuffer buffer = current[segment];
+            int offset = 0;
+            while (offset + HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || length > buffer.capacity() - offset - HEADER_BYTES
+                        || buffer.getInt(offset + 4) != checksum(buffer, offset + HEADER_BYTES, length)) {
+                    log.warn("Discarding torn or corrupt record in segment {} at offset {}", segment, offset);
+                    break;
+                }
+                visitor.visit(position(segment, offset + HEADER_BYTES), buffer, offset + HEADER_BYTES, length);
+                records++;
+                offset += HEADER_BYTES + length;
+            }
+            writeSegment = segment;
+            writeOffset = offset;
+        }
+        // earlier segments are never appended to again, so only the last one needs a clean tail
+        clear(current[writeSegment], writeOffset);
+        return records;
+    }
+
+    /**
+     * Appends one record.
+     *
+     * @param payload the record content.
+     * @param sync    whether to force the record to disk before returning.
+     * @return the position of the record.
+     */
+    long append(byte[] payload, boolean sync) throws IOException {
+        int frame = HEADER_BYTES + payload.length;
+        if (frame > segmentSize) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds the segment size");
+        }
+        MappedByteBuffer buffer = segments[writeSegment];
+        if (writeOffset + frame > buffer.capacity()) {
+            buffer.force();
+            buffer = startSegment();
+        }
+        buffer.put(writeOffset + HEADER_BYTES, payload);
+        buffer.putInt(writeOffset + 4, checksum(ByteBuffer.wrap(payload), 0, payload.length));
+        buffer.putInt(writeOffset, payload.length);
+        if (sync) {
+            buffer.force(writeOffset, frame);
+        }
+        long position = position(writeSegment, writeOffset + HEADER_BYTES);
+        writeOffset += frame;
+        return position;
+    }
+
+    ByteBuffer buffer(long position) {
+        return segments[(int) (position >>> 32)];
+    }
+
+    static int offset(long position) {
+        return (int) position;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    void force() {
+        segments[writeSegment].force();
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(long position, ByteBuffer buffer, int offset, int length);
+    }
+
+    private MappedByteBuffer startSegment() throws IOException {
+        int next = writeSegment + 1;
+        if (next >= MAX_SEGMENTS) {
+            throw new IOException("Segment limit of " + MAX_SEGMENTS + " reached in " + directory);
+        }
+        MappedByteBuffer buffer = map(segmentFile(next), segmentSize);
+        MappedByteBuffer[] grown = Arrays.copyOf(segments, next + 1);
+        grown[next] = buffer;
+        segments = grown;
+        writeSegment = next;
+        writeOffset = 0;
+        return buffer;
+    }
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(String.format("segment-%06d.log", segment));
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long position(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Zeroes everything from {@code offset} on, so stale bytes of discarded records are never
+     * mistaken for records appended later.
+     */
+    private static void clear(MappedByteBuffer buffer, int offset) {
+        boolean dirty = false;
+        int i = offset;
+        for (; i + Long.BYTES <= buffer.capacity(); i += Long.BYTES) {
+            if (buffer.getLong(i) != 0) {
+                buffer.putLong(i, 0);
+                dirty = true;
+            }
+        }
+        for (; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                dirty = true;
+            }
+        }
+        if (dirty) {
+            buffer.force();
+        }
+    }
+}
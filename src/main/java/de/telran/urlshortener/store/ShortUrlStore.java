@@ -0,0 +1,119 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.entity.ShortUrlEntity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Storage of short key to full URL mappings used by {@code UrlShortenerService}.
+ * <p>
+ * The backend is selected with {@code short-url.storage.backend}. Keys and URL digests are
+ * unique; inserts that would break either throw
+ * {@link org.springframework.dao.DataIntegrityViolationException}. Expiring links have no
+ * digest. Lookups treat a link whose {@code expiresAt} has passed as absent, whether or not
+ * it was deleted yet. All methods are safe to call concurrently.
+ * </p>
+ */
+public interface ShortUrlStore {
+
+    /**
+     * A stored link as the redirect path needs it.
+     *
+     * @param fullUrl   the URL to redirect to.
+     * @param expiresAt the end of its lifetime, or null if it never expires.
+     */
+    record Link(String fullUrl, Instant expiresAt) {
+    }
+
+    /**
+     * @return the link stored under the key, or null if there is none or it has expired.
+     */
+    Link findLink(String key);
+
+    /**
+     * @return the full URL stored under the key, or null if there is none or it has expired.
+     */
+    default String findFullUrl(String key) {
+        Link link = findLink(key);
+        return link != null ? link.fullUrl() : null;
+    }
+
+    /**
+     * @param fullUrlHash the digest of the normalized full URL.
+     * @return the key of the URL with this digest, or null if it was never shortened.
+     */
+    String findKeyByFullUrlHash(String fullUrlHash);
+
+    /**
+     * @return the keys of all stored URLs with one of the given digests, by digest.
+     */
+    Map<String, String> findKeysByFullUrlHashes(Collection<String> fullUrlHashes);
+
+    /**
+     * Finds links stored before URL digests existed: links without a digest and without an
+     * expiry, matched on the exact full URL. Only needed until {@link #backfillFullUrlHashes}
+     * has covered them; backends that never held such links keep this default.
+     *
+     * @return the keys of these links, by full URL.
+     */
+    default Map<String, String> findKeysOfUndigestedUrls(Collection<String> fullUrls) {
+        return Map.of();
+    }
+
+    /**
+     * Gives up to {@code limit} links without a digest and without an expiry, the first ones
+     * by id after {@code afterId}, the digest of their full URL. A link whose digest already
+     * belongs to another link keeps none, so each URL still has at most one digested key.
+     *
+     * @return the id of the last link looked at, or -1 if there is none after {@code afterId}.
+     */
+    default long backfillFullUrlHashes(long afterId, int limit) {
+        return -1;
+    }
+
+    /**
+     * Stores a new mapping from {@code key}, {@code fullUrl}, {@code fullUrlHash} and
+     * {@code expiresAt} of the entity.
+     */
+    void insert(ShortUrlEntity entity);
+
+    /**
+     * Stores several new mappings; either all of them are stored or, on a duplicate, none.
+     */
+    void insertAll(Collection<ShortUrlEntity> entities);
+
+    /**
+     * Adds click deltas to the click counts of their keys, as one batch. Deltas of unknown keys
+     * are ignored.
+     */
+    void applyClickDeltas(List<Map.Entry<String, Long>> deltas);
+
+    /**
+     * Deletes at most {@code limit} links that expired at or before {@code now}, in one short
+     * write of its own, so that callers purge in bounded batches.
+     *
+     * @return the keys of the deleted links; fewer than {@code limit} once none are left.
+     */
+    List<String> deleteExpired(Instant now, int limit);
+
+    /**
+     * @return up to {@code limit} live links with the highest click counts, by key, most
+     * clicked first.
+     */
+    Map<String, Link> findMostClicked(int limit);
+
+    /**
+     * Passes every stored key to {@code consumer}, without holding them all in memory.
+     */
+    void forEachKey(Consumer<String> consumer);
+
+    /**
+     * Passes every stored mapping with its click count to {@code consumer}, in no particular
+     * order and without holding them all in memory. The entities are detached snapshots.
+     */
+    void scan(Consumer<ShortUrlEntity> consumer);
+}
@@ -0,0 +1,100 @@
+package de.telran.urlshortener.util;
+
+/**
+ * Encodes non-negative ids as keys over a configurable alphabet (base62 by default).
+ * <p>
+ * Ids below {@code alphabet.length ^ keyLength} are encoded with exactly {@code keyLength}
+ * characters, optionally after a keyed Feistel permutation of that range so consecutive ids
+ * do not produce consecutive keys. Larger ids are encoded unscrambled and are therefore always
+ * longer than {@code keyLength}, which keeps the mapping collision free.
+ * </p>
+ */
+public final class KeyEncoder {
+
+    private static final int ROUNDS = 4;
+
+    private final char[] alphabet;
+    private final int keyLength;
+    private final long space;
+    private final boolean scramble;
+    private final long secret;
+    private final int halfBits;
+    private final long halfMask;
+
+    public KeyEncoder(String alphabet, int keyLength, boolean scramble, long secret) {
+        if (alphabet == null || alphabet.length() < 2) {
+            throw new IllegalArgumentException("Key alphabet must contain at least two characters");
+        }
+        if (alphabet.chars().distinct().count() != alphabet.length()) {
+            throw new IllegalArgumentException("Key alphabet must not contain duplicate characters");
+        }
+        this.alphabet = alphabet.toCharArray();
+        this.keyLength = keyLength;
+        this.space = keySpace(this.alphabet.length, keyLength);
+        this.scramble = scramble;
+        this.secret = secret;
+        int bits = 64 - Long.numberOfLeadingZeros(space - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+    }
+
+    public String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        int base = alphabet.length;
+        if (id < space) {
+            long value = scramble ? permute(id) : id;
+            char[] key = new char[keyLength];
+            for (int i = keyLength - 1; i >= 0; i--) {
+                key[i] = alphabet[(int) (value % base)];
+                value /= base;
+            }
+            return new String(key);
+        }
+        StringBuilder key = new StringBuilder(keyLength + 2);
+        for (long value = id; value > 0; value /= base) {
+            key.append(alphabet[(int) (value % base)]);
+        }
+        return key.reverse().toString();
+    }
+
+    /**
+     * Bijection on {@code [0, space)}: a balanced Feistel network over the smallest even bit
+     * width covering the range, cycle-walked until the result falls back inside it.
+     */
+    private long permute(long value) {
+        do {
+            value = feistel(value);
+        } while (value >= space);
+        return value;
+    }
+
+    private long feistel(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ (mix(right ^ (secret + round * 0x9E3779B97F4A7C15L)) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long keySpace(int base, int keyLength) {
+        long space = 1;
+        for (int i = 0; i < keyLength; i++) {
+            space = Math.multiplyExact(space, base);
+        }
+        if (space > Long.MAX_VALUE >>> 2) {
+            throw new IllegalArgumentException("Key space " + base + "^" + keyLength + " is too large");
+        }
+        return space;
+    }
+}
@@ -0,0 +1,43 @@
+package de.telran.urlshortener.util;
+
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.service.KeySequenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique numeric ids from blocks leased via {@link KeySequenceService}.
+ * <p>
+ * Only every {@code keyBlockSize}-th call touches the database; ids left in the current block
+ * on shutdown are simply skipped.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceKeyAllocator {
+
+    static final String SEQUENCE_NAME = "short_url_key";
+
+    private final KeySequenceService keySequenceService;
+    private final ShortUrlConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long end;
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next >= end) {
+                int blockSize = config.getKeyBlockSize();
+                next = keySequenceService.leaseBlock(SEQUENCE_NAME, blockSize);
+                end = next + blockSize;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -4,24 +4,36 @@ import de.telran.urlshortener.config.ShortUrlConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class ShortUrlUtil {
 
     private final ShortUrlConfig config;
+    private final SequenceKeyAllocator allocator;
+    private final KeyEncoder encoder;
 
     @Autowired
-    public ShortUrlUtil(ShortUrlConfig config) {
+    public ShortUrlUtil(ShortUrlConfig config, SequenceKeyAllocator allocator) {
         this.config = config;
+        this.allocator = allocator;
+        this.encoder = new KeyEncoder(config.getAllowedCharacters(), config.getKeyLength(),
+                config.isScrambleKeys(), config.getScrambleSecret());
     }
 
     public String generateUniqueKey() {
+        if (config.getKeyMode() == ShortUrlConfig.KeyMode.SEQUENCE) {
+            return encoder.encode(allocator.nextId());
+        }
+        return generateRandomKey();
+    }
+
+    private String generateRandomKey() {
         int keyLength = config.getKeyLength();
         String allowedCharacters = config.getAllowedCharacters();
 
-        StringBuilder keyBuilder = new StringBuilder();
-        Random random = new Random();
+        StringBuilder keyBuilder = new StringBuilder(keyLength);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
 
         for (int i = 0; i < keyLength; i++) {
             int randomIndex = random.nextInt(allowedCharacters.length());
@@ -0,0 +1,139 @@
+package de.telran.urlshortener.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving summary of the heaviest keys of a weighted stream, in constant memory.
+ * <p>
+ * At most {@code capacity} keys are monitored. An unmonitored key replaces the one with the
+ * smallest count and inherits that count as its overestimation error, so every key heavier
+ * than {@code total / capacity} is guaranteed to be monitored. Counters sit in an indexed
+ * min-heap, which makes each update {@code O(log capacity)}. {@link #scale} multiplies all
+ * counts at once, for example to decay old observations.
+ * </p>
+ * <p>
+ * Not thread-safe; callers synchronize.
+ * </p>
+ */
+public final class SpaceSaving {
+
+    private final int capacity;
+    private final String[] keys;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.keys = new String[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.positions = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    public void add(String key, double weight) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < capacity) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // replace the lightest key, which becomes the error bound of the new one
+            positions.remove(keys[0]);
+            keys[0] = key;
+            errors[0] = counts[0];
+            counts[0] += weight;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Multiplies every count and error by {@code factor}; the heap order is unchanged.
+     */
+    public void scale(double factor) {
+        for (int i = 0; i < size; i++) {
+            counts[i] *= factor;
+            errors[i] *= factor;
+        }
+    }
+
+    /**
+     * @return up to {@code n} monitored keys, heaviest first.
+     */
+    public List<Entry> top(int n) {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(keys[i], counts[i], errors[i]));
+        }
+        entries.sort(Comparator.comparingDouble(Entry::count).reversed());
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A monitored key; its true count lies in {@code [count - error, count]}.
+     */
+    public record Entry(String key, double count, double error) {
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[parent] <= counts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        String key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        double count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        double error = errors[i];
+        errors[i] = errors[j];
+        errors[j] = error;
+        positions.put(keys[i], i);
+        positions.put(keys[j], j);
+    }
+}
@@ -0,0 +1,155 @@
+package de.telran.urlshortener.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: schedules items for a deadline in {@code O(1)} and hands them
+ * back once the clock passes it.
+ * <p>
+ * Level 0 has {@code wheelSize} slots of one tick each; every further level has as many
+ * slots, each spanning a full turn of the level below. An item goes to the lowest level whose
+ * range covers its deadline and cascades one level down whenever the clock reaches the start
+ * of its slot, so it is moved at most once per level. Levels are added on demand, which keeps
+ * the wheel small for near deadlines and still covers any far one. Deadlines are rounded up
+ * to whole ticks, so an item comes due at most one tick after its exact deadline and never
+ * before it.
+ * </p>
+ * <p>
+ * There is no cancellation; callers that reschedule or forget an item ignore its stale entry
+ * when it comes due. Not thread-safe; callers synchronize.
+ * </p>
+ *
+ * @param <T> the scheduled items.
+ */
+public final class TimingWheel<T> {
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Entry<T>>[]> levels = new ArrayList<>();
+
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("wheelSize must be at least 2: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        addLevel();
+    }
+
+    /**
+     * Schedules the item for {@code deadlineMillis}.
+     *
+     * @return false if the clock has already reached the deadline, in which case nothing is
+     * scheduled.
+     */
+    public boolean add(T item, long deadlineMillis) {
+        long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(new Entry<>(item, deadlineTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis} and passes every item whose deadline it reached to
+     * {@code expired}, in deadline order. Time never runs backwards: an earlier
+     * {@code nowMillis} does nothing.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            // cascade from the top, so entries reach level 0 before its slot is drained
+            for (int level = levels.size() - 1; level > 0; level--) {
+                long span = span(level);
+                if (currentTick % span == 0) {
+                    List<Entry<T>> cascading = take(level, (int) ((currentTick / span) % wheelSize));
+                    for (Entry<T> entry : cascading) {
+                        if (entry.deadlineTick() <= currentTick) {
+                            size--;
+                            expired.accept(entry.item());
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            for (Entry<T> entry : take(0, (int) (currentTick % wheelSize))) {
+                size--;
+                expired.accept(entry.item());
+            }
+        }
+    }
+
+    /**
+     * @return the number of scheduled items, including stale ones callers no longer track.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        int level = 0;
+        while (delta >= span(level + 1)) {
+            level++;
+        }
+        while (level >= levels.size()) {
+            addLevel();
+        }
+        long span = span(level);
+        int slot = (int) ((entry.deadlineTick() / span) % wheelSize);
+        List<Entry<T>>[] slots = levels.get(level);
+        if (slots[slot] == null) {
+            slots[slot] = new ArrayList<>();
+        }
+        slots[slot].add(entry);
+    }
+
+    private List<Entry<T>> take(int level, int slot) {
+        List<Entry<T>>[] slots = levels.get(level);
+        List<Entry<T>> entries = slots[slot];
+        if (entries == null) {
+            return List.of();
+        }
+        slots[slot] = null;
+        return entries;
+    }
+
+    /**
+     * Ticks covered by one slot of the level; saturates instead of overflowing.
+     */
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            if (span > Long.MAX_VALUE / wheelSize) {
+                return Long.MAX_VALUE;
+            }
+            span *= wheelSize;
+        }
+        return span;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLevel() {
+        levels.add(new List[wheelSize]);
+    }
+}
@@ -0,0 +1,70 @@
+package de.telran.urlshortener.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Normalization and hashing of full URLs for deduplication.
+ * <p>
+ * Only transformations that do not change what the URL points to are applied: surrounding
+ * whitespace is trimmed, scheme and host are lower-cased, default ports are dropped and an
+ * empty path becomes {@code /}. Path, query and fragment are kept as they are.
+ * </p>
+ */
+public final class UrlNormalizer {
+
+    private UrlNormalizer() {
+    }
+
+    public static String normalize(String url) {
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            StringBuilder normalized = new StringBuilder(trimmed.length())
+                    .append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                normalized.append(uri.getRawUserInfo()).append('@');
+            }
+            normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (port != -1) {
+                normalized.append(':').append(port);
+            }
+            String path = uri.getRawPath();
+            normalized.append(path == null || path.isEmpty() ? "/" : path);
+            if (uri.getRawQuery() != null) {
+                normalized.append('?').append(uri.getRawQuery());
+            }
+            if (uri.getRawFragment() != null) {
+                normalized.append('#').append(uri.getRawFragment());
+            }
+            return normalized.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 digest (64 characters) of the normalized URL.
+     */
+    public static String digest(String url) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(normalize(url).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package de.telran.urlshortener.cache;
+
+import de.telran.urlshortener.config.KeyFilterConfig;
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyPrefilterTest {
+
+    private InMemoryShortUrlStore store;
+    private KeyFilterConfig config;
+    private ShortUrlConfig shortUrlConfig;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryShortUrlStore();
+        store.insertAll(List.of(ShortUrlEntity.builder().key("abc123").fullUrl("https://example.com/")
+                .fullUrlHash("hash").clickCount(0L).build()));
+        config = new KeyFilterConfig();
+        config.setExpectedKeys(1_000);
+        shortUrlConfig = new ShortUrlConfig();
+        shortUrlConfig.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789");
+        shortUrlConfig.setKeyLength(6);
+    }
+
+    @Test
+    void rejectsMalformedAndUnknownKeys() {
+        KeyPrefilter prefilter = new KeyPrefilter(store, config, shortUrlConfig);
+        assertTrue(prefilter.mightExist("zzz999"), "only the syntax check applies before the first build");
+        prefilter.rebuild();
+
+        assertTrue(prefilter.mightExist("abc123"));
+        assertFalse(prefilter.mightExist("abc"));
+        assertFalse(prefilter.mightExist("ABC123"));
+        assertFalse(prefilter.mightExist("zzz999"));
+    }
+
+    @Test
+    void addedKeysPassAfterAnEarlierMiss() {
+        KeyPrefilter prefilter = new KeyPrefilter(store, config, shortUrlConfig);
+        prefilter.rebuild();
+        prefilter.recordMiss("abc123");
+        assertFalse(prefilter.mightExist("abc123"));
+
+        // a purged key handed out again must not stay rejected by the negative cache
+        prefilter.add("abc123");
+        assertTrue(prefilter.mightExist("abc123"));
+    }
+
+    @Test
+    void storeFallbackLooksUpKeysTheFilterHasNotSeen() {
+        config.setStoreFallback(true);
+        KeyPrefilter prefilter = new KeyPrefilter(store, config, shortUrlConfig);
+        prefilter.rebuild();
+
+        // created by another instance after the rebuild
+        assertTrue(prefilter.mightExist("zzz999"));
+        prefilter.recordHit("zzz999");
+        config.setStoreFallback(false);
+        assertTrue(prefilter.mightExist("zzz999"), "found keys are added to the filter");
+
+        config.setStoreFallback(true);
+        prefilter.recordMiss("yyy888");
+        assertFalse(prefilter.mightExist("yyy888"), "repeated misses are answered by the negative cache");
+        assertFalse(prefilter.mightExist("abc"));
+    }
+
+    @Test
+    void scheduledRebuildRunsOffTheSchedulerThreadAndIsNotDoubled() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scans = new AtomicInteger();
+        InMemoryShortUrlStore slowStore = new InMemoryShortUrlStore() {
+            @Override
+            public void forEachKey(Consumer<String> consumer) {
+                scans.incrementAndGet();
+                scanning.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.forEachKey(consumer);
+            }
+        };
+        slowStore.insertAll(List.of(ShortUrlEntity.builder().key("abc123").fullUrl("https://example.com/")
+                .fullUrlHash("hash").clickCount(0L).build()));
+        KeyPrefilter prefilter = new KeyPrefilter(slowStore, config, shortUrlConfig);
+        try {
+            // returns while the scan is still blocked
+            prefilter.scheduleRebuild();
+            assertTrue(scanning.await(10, TimeUnit.SECONDS));
+            prefilter.scheduleRebuild();
+            release.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (prefilter.mightExist("zzz999") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(prefilter.mightExist("zzz999"));
+            assertTrue(prefilter.mightExist("abc123"));
+            assertEquals(1, scans.get(), "a rebuild still running is not started again");
+        } finally {
+            prefilter.shutdown();
+        }
+    }
+}
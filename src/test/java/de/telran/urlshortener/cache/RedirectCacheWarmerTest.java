@@ -0,0 +1,125 @@
+package de.telran.urlshortener.cache;
+
+import de.telran.urlshortener.config.LinkExpiryConfig;
+import de.telran.urlshortener.config.RedirectCacheConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import de.telran.urlshortener.store.ShortUrlStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectCacheWarmerTest {
+
+    /**
+     * Holds the warm-up query until the test releases it.
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private InMemoryShortUrlStore store;
+    private RedirectCacheConfig config;
+    private RedirectCache redirectCache;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryShortUrlStore() {
+            @Override
+            public Map<String, Link> findMostClicked(int limit) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findMostClicked(limit);
+            }
+        };
+        store.insertAll(List.of(
+                ShortUrlEntity.builder().key("top001").fullUrl("https://example.com/top").fullUrlHash("hash-top")
+                        .clickCount(0L).build(),
+                ShortUrlEntity.builder().key("low001").fullUrl("https://example.com/low").fullUrlHash("hash-low")
+                        .clickCount(0L).build()));
+        store.applyClickDeltas(List.of(Map.entry("top001", 5L), Map.entry("low001", 1L)));
+        config = new RedirectCacheConfig();
+        redirectCache = new RedirectCache(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void readinessFlipsOnceTheCacheIsWarm() throws InterruptedException {
+        RedirectCacheWarmer warmer = warmer();
+        assertEquals(Status.OUT_OF_SERVICE, warmer.health().getStatus());
+
+        warmer.start();
+        assertEquals(Status.OUT_OF_SERVICE, warmer.health().getStatus(), "not ready while the warm-up runs");
+        release.countDown();
+
+        Health health = awaitUp(warmer);
+        assertEquals("DONE", health.getDetails().get("state").toString());
+        assertEquals(2, health.getDetails().get("loaded"));
+        assertEquals("https://example.com/low", redirectCache.get("low001", key -> null).fullUrl());
+    }
+
+    @Test
+    void entriesCachedMeanwhileAreKept() throws InterruptedException {
+        RedirectCacheWarmer warmer = warmer();
+        warmer.start();
+        // a redirect served while the warm-up query runs
+        ShortUrlStore.Link fresh = new ShortUrlStore.Link("https://example.com/fresh", null);
+        redirectCache.put("top001", fresh);
+        release.countDown();
+
+        awaitUp(warmer);
+        assertEquals(fresh, redirectCache.get("top001", key -> null));
+    }
+
+    @Test
+    void reportsReadyOnceTheTimeoutPasses() throws InterruptedException {
+        config.setWarmupTimeout(Duration.ofMillis(50));
+        RedirectCacheWarmer warmer = warmer();
+        warmer.start();
+
+        Health health = awaitUp(warmer);
+        assertEquals("TIMED_OUT", health.getDetails().get("state").toString(), "the store has not answered yet");
+        release.countDown();
+    }
+
+    @Test
+    void reportsReadyWhenDisabled() {
+        config.setWarmupEnabled(false);
+        RedirectCacheWarmer warmer = warmer();
+        warmer.start();
+
+        assertEquals(Status.UP, warmer.health().getStatus());
+        assertEquals("DISABLED", warmer.health().getDetails().get("state").toString());
+    }
+
+    private RedirectCacheWarmer warmer() {
+        return new RedirectCacheWarmer(store, redirectCache,
+                new LinkExpiryTracker(redirectCache, config, new LinkExpiryConfig()), config);
+    }
+
+    private static Health awaitUp(RedirectCacheWarmer warmer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        Health health = warmer.health();
+        while (health.getStatus() != Status.UP && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            health = warmer.health();
+        }
+        assertEquals(Status.UP, health.getStatus());
+        return health;
+    }
+}
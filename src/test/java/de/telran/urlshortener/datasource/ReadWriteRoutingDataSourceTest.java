@@ -0,0 +1,104 @@
+package de.telran.urlshortener.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between separate H2 databases that hold different rows, so every read shows which
+ * pool served it. The redirect pool of the primary is a database of its own for that reason.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String FIND_SQL = "SELECT full_url FROM urls WHERE short_url = ?";
+
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource redirectPool = database("redirect");
+        new JdbcTemplate(primary).update("INSERT INTO urls VALUES ('abc123', 'from-primary'), ('new001', 'from-primary')");
+        new JdbcTemplate(replica).update("INSERT INTO urls VALUES ('abc123', 'from-replica')");
+        new JdbcTemplate(redirectPool).update("INSERT INTO urls VALUES ('abc123', 'from-redirect-pool')");
+
+        routing = new ReadWriteRoutingDataSource(primary, Map.of("replica-0", replica), Map.of(
+                ReadWriteRoutingDataSource.poolName(ReadWriteRoutingDataSource.PRIMARY, Workload.REDIRECT_READ),
+                redirectPool));
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (DataSource target : routing.getResolvedDataSources().values()) {
+            new JdbcTemplate(target).execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals(List.of("from-replica"), readOnly.execute(status -> find("abc123")));
+        assertEquals(List.of("from-primary"), readWrite.execute(status -> find("abc123")));
+        assertEquals(List.of("from-primary"), find("abc123"), "statements outside a transaction");
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnlyTransactions() {
+        assertEquals(List.of(), readOnly.execute(status -> find("new001")));
+        assertEquals(List.of("from-primary"),
+                ReadWriteRoutingDataSource.onPrimary(() -> readOnly.execute(status -> find("new001"))));
+        assertEquals(List.of("from-replica"), readOnly.execute(status -> find("abc123")), "override is reset");
+    }
+
+    @Test
+    void unavailableReplicasAreSkipped() {
+        routing.setAvailable("replica-0", false);
+        assertEquals(List.of("from-primary"), readOnly.execute(status -> find("abc123")));
+        assertTrue(routing.getAvailableReplicas().isEmpty());
+
+        routing.setAvailable("replica-0", true);
+        assertEquals(List.of("from-replica"), readOnly.execute(status -> find("abc123")));
+    }
+
+    @Test
+    void workloadsUseTheirOwnPoolWhereThereIsOne() {
+        assertEquals(List.of("from-redirect-pool"), Workload.REDIRECT_READ.call(() -> find("abc123")));
+        assertEquals(List.of("from-primary"), Workload.AUTH.call(() -> find("abc123")), "no auth pool");
+        assertEquals(List.of("from-replica"),
+                Workload.REDIRECT_READ.call(() -> readOnly.execute(status -> find("abc123"))), "no replica redirect pool");
+        assertEquals(List.of("from-redirect-pool"),
+                Workload.AUTH.call(() -> Workload.REDIRECT_READ.call(() -> find("abc123"))), "innermost workload wins");
+        assertNull(Workload.current());
+    }
+
+    private List<String> find(String key) {
+        return jdbcTemplate.queryForList(FIND_SQL, String.class, key);
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+        new JdbcTemplate(dataSource).execute("CREATE TABLE urls (short_url VARCHAR(16) PRIMARY KEY, full_url VARCHAR(255))");
+        return dataSource;
+    }
+}
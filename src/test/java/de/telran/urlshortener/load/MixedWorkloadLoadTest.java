@@ -0,0 +1,219 @@
+package de.telran.urlshortener.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.security.dto.Role;
+import de.telran.urlshortener.security.dto.UserDto;
+import de.telran.urlshortener.security.jwt.dto.JwtRequest;
+import de.telran.urlshortener.security.service.AuthService;
+import de.telran.urlshortener.security.service.UserService;
+import de.telran.urlshortener.service.UrlShortenerService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of the three hot endpoints against a random-port server with the
+ * in-memory H2 profile.
+ * <p>
+ * Seeds {@code load.urls} short URLs and {@code load.users} users, then runs {@code load.clients}
+ * closed-loop clients for {@code load.duration}: most requests are {@code GET /{key}} redirects,
+ * a share ({@code load.create-percent}) are authenticated {@code POST /createUrl} calls, and every
+ * {@code load.login-burst-interval} a burst of {@code load.login-burst-size} concurrent
+ * {@code /auth/login} calls is fired. Latencies are recorded per endpoint in HdrHistograms and
+ * reported as throughput and p50/p99/p99.9. All knobs are system properties, e.g.
+ * {@code mvn -Pload test -Dtest=MixedWorkloadLoadTest -Dload.duration=PT2M -Dload.clients=256}.
+ * </p>
+ */
+@Tag("load")
+@ActiveProfiles("h2")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MixedWorkloadLoadTest {
+
+    private static final int URLS = Integer.getInteger("load.urls", 10_000);
+    private static final int USERS = Integer.getInteger("load.users", 20);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+    private static final int CREATE_PERCENT = Integer.getInteger("load.create-percent", 5);
+    private static final int LOGIN_BURST_SIZE = Integer.getInteger("load.login-burst-size", 20);
+    private static final Duration LOGIN_BURST_INTERVAL =
+            Duration.parse(System.getProperty("load.login-burst-interval", "PT5S"));
+    private static final Duration WARM_UP = Duration.parse(System.getProperty("load.warm-up", "PT5S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT30S"));
+    private static final String PASSWORD = "load-test";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    private final AtomicLong createdUrls = new AtomicLong();
+
+    @Test
+    void mixedRedirectCreateLoginWorkload() throws Exception {
+        List<String> keys = seedUrls();
+        List<String> logins = seedUsers();
+        List<String> tokens = new ArrayList<>();
+        for (String login : logins) {
+            tokens.add(authService.login(jwtRequest(login)).getAccessToken());
+        }
+
+        run(keys, logins, tokens, WARM_UP);
+        Map<String, Endpoint> endpoints = run(keys, logins, tokens, DURATION);
+
+        System.out.printf("%nMixed workload: %d clients, %s, %d seeded URLs, %d users%n",
+                CLIENTS, DURATION, URLS, USERS);
+        System.out.printf("%-14s %10s %10s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        endpoints.forEach((name, endpoint) -> System.out.println(endpoint.report(name, DURATION)));
+        System.out.println();
+
+        endpoints.values().forEach(endpoint -> assertEquals(0, endpoint.errors.sum()));
+        assertTrue(endpoints.get("GET /{key}").histogram.getTotalCount() > 0);
+    }
+
+    private Map<String, Endpoint> run(List<String> keys, List<String> logins, List<String> tokens,
+                                      Duration duration) throws InterruptedException {
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        Endpoint redirect = endpoints.computeIfAbsent("GET /{key}", name -> new Endpoint());
+        Endpoint create = endpoints.computeIfAbsent("POST /createUrl", name -> new Endpoint());
+        Endpoint login = endpoints.computeIfAbsent("POST /auth/login", name -> new Endpoint());
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             ScheduledExecutorService bursts = Executors.newSingleThreadScheduledExecutor()) {
+            bursts.scheduleAtFixedRate(() -> {
+                for (int i = 0; i < LOGIN_BURST_SIZE && System.nanoTime() < deadline; i++) {
+                    String user = logins.get(i % logins.size());
+                    clients.submit(() -> login.call(() -> post("/auth/login", jwtRequest(user), null), 200));
+                }
+            }, 0, LOGIN_BURST_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+            CountDownLatch done = new CountDownLatch(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        if (random.nextInt(100) < CREATE_PERCENT) {
+                            String token = tokens.get(random.nextInt(tokens.size()));
+                            ShortUrlRequest request = new ShortUrlRequest();
+                            request.setUrl("https://load.example.com/created/" + createdUrls.incrementAndGet());
+                            create.call(() -> post("/createUrl", request, token), 200);
+                        } else {
+                            String key = keys.get(random.nextInt(keys.size()));
+                            redirect.call(() -> get("/" + key), 302);
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            done.await();
+            bursts.shutdownNow();
+        }
+        return endpoints;
+    }
+
+    private List<String> seedUrls() {
+        List<String> keys = new ArrayList<>(URLS);
+        for (int from = 0; from < URLS; from += 1000) {
+            List<ShortUrlRequest> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(URLS, from + 1000); i++) {
+                ShortUrlRequest request = new ShortUrlRequest();
+                request.setUrl("https://load.example.com/seed/" + i);
+                batch.add(request);
+            }
+            urlShortenerService.createShortUrls(batch).stream().map(ShortUrlBatchResponse::getKey).forEach(keys::add);
+        }
+        return keys;
+    }
+
+    private List<String> seedUsers() throws Exception {
+        List<String> logins = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            String login = "load-user-" + i;
+            userService.createUser(new UserDto(login, PASSWORD, "Load", "User " + i, Set.of(Role.USER)));
+            logins.add(login);
+        }
+        return logins;
+    }
+
+    private static JwtRequest jwtRequest(String login) {
+        JwtRequest request = new JwtRequest();
+        request.setLogin(login);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int post(String path, Object body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static class Endpoint {
+        private final Histogram histogram = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+        private final LongAdder errors = new LongAdder();
+
+        void call(Callable<Integer> request, int expectedStatus) {
+            long start = System.nanoTime();
+            try {
+                if (request.call() != expectedStatus) {
+                    errors.increment();
+                }
+            } catch (Exception e) {
+                errors.increment();
+            }
+            histogram.recordValue(Math.min(histogram.getHighestTrackableValue(),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+        }
+
+        String report(String name, Duration duration) {
+            return String.format("%-14s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %7d",
+                    name, histogram.getTotalCount(), histogram.getTotalCount() / (double) duration.toSeconds(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+                    errors.sum());
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.telran.urlshortener.load;
+
+import de.telran.urlshortener.UrlShortenerApplication;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redirect throughput with platform-thread Tomcat workers versus virtual threads.
+ * <p>
+ * Starts the application twice on a random port with its own in-memory H2 database, once per
+ * mode, with the redirect cache disabled so every request blocks on JDBC. Both runs use the same
+ * seed and client concurrency, which is set above Tomcat's default 200 worker threads.
+ * Run with {@code mvn -Pload test}.
+ * </p>
+ */
+@Tag("load")
+class VirtualThreadThroughputTest {
+
+    private static final int URLS = 1_000;
+    private static final int CLIENTS = 400;
+    private static final Duration WARM_UP = Duration.ofSeconds(3);
+    private static final Duration MEASURE = Duration.ofSeconds(10);
+
+    @Test
+    void compareRedirectThroughput() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%nRedirect throughput with %d concurrent clients:%n", CLIENTS);
+        System.out.printf("  platform threads: %,10.0f req/s (%d errors)%n", platform.throughput(), platform.errors());
+        System.out.printf("  virtual threads:  %,10.0f req/s (%d errors)%n", virtual.throughput(), virtual.errors());
+        System.out.printf("  ratio virtual/platform: %.2f%n%n", virtual.throughput() / platform.throughput());
+
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+        assertTrue(platform.throughput() > 0 && virtual.throughput() > 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(UrlShortenerApplication.class).run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:throughput-" + mode,
+                        "--spring.jpa.show-sql=false",
+                        "--short-url.cache.enabled=false")) {
+            List<String> keys = seed(context.getBean(UrlShortenerService.class));
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/";
+
+            drive(baseUrl, keys, WARM_UP);
+            return drive(baseUrl, keys, MEASURE);
+        }
+    }
+
+    private List<String> seed(UrlShortenerService service) {
+        List<ShortUrlRequest> requests = new ArrayList<>(URLS);
+        for (int i = 0; i < URLS; i++) {
+            ShortUrlRequest request = new ShortUrlRequest();
+            request.setUrl("https://throughput.example.com/" + i);
+            requests.add(request);
+        }
+        return service.createShortUrls(requests).stream().map(ShortUrlBatchResponse::getKey).toList();
+    }
+
+    private Result drive(String baseUrl, List<String> keys, Duration duration) throws InterruptedException {
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        // the executor is closed first and waits for all clients before the HttpClient goes away
+        try (HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1).followRedirects(HttpClient.Redirect.NEVER).build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        String key = keys.get(ThreadLocalRandom.current().nextInt(keys.size()));
+                        try {
+                            HttpResponse<Void> response = http.send(
+                                    HttpRequest.newBuilder(URI.create(baseUrl + key)).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 302) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        requests.increment();
+                    }
+                });
+            }
+        }
+        return new Result(requests.sum() / (double) duration.toSeconds(), errors.sum());
+    }
+
+    private record Result(double throughput, long errors) {
+    }
+}
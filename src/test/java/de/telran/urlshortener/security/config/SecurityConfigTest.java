@@ -0,0 +1,82 @@
+package de.telran.urlshortener.security.config;
+
+import de.telran.urlshortener.config.ShortUrlConfig;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Shares the application context of {@code UrlShortenerApplicationTests}; MockMvc is set up by
+ * hand so that the context cache key stays the same.
+ */
+@SpringBootTest
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private UrlShortenerService service;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void anonymousRequestsOutsideTheKeySyntaxAreNotRedirects() throws Exception {
+        mockMvc.perform(get("/actuator")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousKeysStillRedirect() throws Exception {
+        ShortUrlRequest request = new ShortUrlRequest();
+        request.setUrl("https://example.com/security-config");
+        String key = service.createShortUrl(request).getKey();
+
+        mockMvc.perform(get("/" + key)).andExpect(status().isFound())
+                .andExpect(redirectedUrl("https://example.com/security-config"));
+        mockMvc.perform(get("/" + key).param("utm_source", "test")).andExpect(status().isFound());
+    }
+
+    @Test
+    void redirectMatcherFollowsTheKeySyntax() {
+        ShortUrlConfig config = new ShortUrlConfig();
+        config.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789-_");
+        config.setKeyLength(6);
+        RequestMatcher matcher = SecurityConfig.redirectMatcher(config);
+
+        assertTrue(matcher.matches(request("GET", "/abc123")));
+        assertTrue(matcher.matches(request("GET", "/abc-_1234")));
+        assertFalse(matcher.matches(request("GET", "/abc12")), "shorter than keyLength");
+        assertFalse(matcher.matches(request("GET", "/abc1234567x")), "longer than keyLength + 4");
+        assertFalse(matcher.matches(request("GET", "/ABC123")));
+        assertFalse(matcher.matches(request("GET", "/abc/123")));
+        assertFalse(matcher.matches(request("GET", "/actuator")), "reserved even though it has the key syntax");
+        assertFalse(matcher.matches(request("POST", "/abc123")));
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+}
@@ -0,0 +1,45 @@
+package de.telran.urlshortener.security.jwt;
+
+import de.telran.urlshortener.security.dto.Role;
+import de.telran.urlshortener.security.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Base64;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final JwtProvider jwtProvider = new JwtProvider(secret('a'), secret('r'));
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(jwtProvider, true, 100);
+
+    @Test
+    void everyCallGetsItsOwnAuthentication() {
+        String token = jwtProvider.generateAccessToken(new UserDto("user", "1234", "Test", "Test", Set.of(Role.USER)));
+
+        JwtAuthentication first = cache.authenticate(token);
+        first.setAuthenticated(false);
+        first.setUsername("mallory");
+        first.setRoles(Set.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        JwtAuthentication second = cache.authenticate(token);
+
+        assertNotSame(first, second);
+        assertTrue(second.isAuthenticated());
+        assertEquals("user", second.getPrincipal());
+        assertEquals(Set.of(new SimpleGrantedAuthority("ROLE_USER")), second.getRoles());
+        assertEquals(1, cache.stats().hitCount(), "the second call is served from the cache");
+    }
+
+    @Test
+    void invalidTokensAreRejectedAndNotCached() {
+        assertNull(cache.authenticate("not-a-token"));
+        assertNull(cache.authenticate("not-a-token"));
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    private static String secret(char fill) {
+        return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(64).getBytes());
+    }
+}
@@ -0,0 +1,43 @@
+package de.telran.urlshortener.security.service;
+
+import de.telran.urlshortener.security.config.RefreshTokenStoreConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRefreshTokenStoreTest {
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore(new RefreshTokenStoreConfig());
+
+    @Test
+    void saveReplacesPreviousToken() {
+        store.save("user", "first", inOneHour());
+        store.save("user", "second", inOneHour());
+        assertFalse(store.matches("user", "first"));
+        assertTrue(store.matches("user", "second"));
+        assertFalse(store.matches("other", "second"));
+    }
+
+    @Test
+    void rotateSucceedsOncePerToken() {
+        store.save("user", "first", inOneHour());
+        assertTrue(store.rotate("user", "first", "second", inOneHour()));
+        assertFalse(store.rotate("user", "first", "third", inOneHour()));
+        assertTrue(store.matches("user", "second"));
+        assertFalse(store.rotate("unknown", "first", "second", inOneHour()));
+    }
+
+    @Test
+    void expiredTokensDoNotMatch() {
+        store.save("user", "expired", Instant.now().minusSeconds(1));
+        assertFalse(store.matches("user", "expired"));
+        assertFalse(store.rotate("user", "expired", "next", inOneHour()));
+    }
+
+    private static Instant inOneHour() {
+        return Instant.now().plus(Duration.ofHours(1));
+    }
+}
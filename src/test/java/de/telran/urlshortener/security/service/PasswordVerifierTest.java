@@ -0,0 +1,126 @@
+package de.telran.urlshortener.security.service;
+
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.security.config.PasswordVerifierConfig;
+import de.telran.urlshortener.security.controller.AuthController;
+import de.telran.urlshortener.security.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * One worker, one queue slot and a hasher that blocks until released.
+ */
+class PasswordVerifierTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final AtomicInteger hashes = new AtomicInteger();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private PasswordVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoder slowEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashes.incrementAndGet();
+                hashing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return encodedPassword.contentEquals(rawPassword);
+            }
+        };
+        PasswordVerifierConfig config = new PasswordVerifierConfig();
+        config.setThreads(1);
+        config.setQueueCapacity(1);
+        config.setTimeout(Duration.ofMillis(300));
+        verifier = new PasswordVerifier(slowEncoder, config, new UrlShortenerMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        verifier.shutdown();
+    }
+
+    @Test
+    void rejectsWith429WhenTheQueueIsFullAnd503OnTimeout() throws Exception {
+        Future<Boolean> hashed = callers.submit(() -> verifier.matches("secret", "secret"));
+        assertTrue(hashing.await(10, TimeUnit.SECONDS));
+        Future<Boolean> queued = callers.submit(() -> verifier.matches("secret", "secret"));
+        awaitQueueDepth(1);
+
+        LoginThrottledException full = assertThrows(LoginThrottledException.class,
+                () -> verifier.matches("secret", "secret"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, full.getStatus());
+        assertEquals(1, verifier.getRejectedCount());
+
+        ExecutionException timeout = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((LoginThrottledException) timeout.getCause()).getStatus());
+        assertEquals(0, verifier.getQueueDepth(), "the timed out task left the queue");
+
+        ExecutionException running = assertThrows(ExecutionException.class, () -> hashed.get(10, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((LoginThrottledException) running.getCause()).getStatus());
+        assertEquals(2, verifier.getTimedOutCount());
+
+        release.countDown();
+        assertTrue(verifier.matches("secret", "secret"), "the worker is free again");
+        assertEquals(2, hashes.get(), "the abandoned queued check was never hashed");
+    }
+
+    @Test
+    void throttledLoginsCarryRetryAfter() throws Exception {
+        AuthService authService = Mockito.mock(AuthService.class);
+        Mockito.when(authService.login(any())).thenAnswer(invocation -> {
+            verifier.matches("secret", "secret");
+            return null;
+        });
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authService)).build();
+        callers.submit(() -> verifier.matches("secret", "secret"));
+        assertTrue(hashing.await(10, TimeUnit.SECONDS));
+        callers.submit(() -> verifier.matches("secret", "secret"));
+        awaitQueueDepth(1);
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"login\":\"user\",\"password\":\"secret\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (verifier.getQueueDepth() != depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, verifier.getQueueDepth());
+    }
+}
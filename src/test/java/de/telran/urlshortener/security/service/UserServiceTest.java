@@ -0,0 +1,68 @@
+package de.telran.urlshortener.security.service;
+
+import de.telran.urlshortener.config.ReplicaConfig;
+import de.telran.urlshortener.security.config.UserCacheConfig;
+import de.telran.urlshortener.security.dto.Role;
+import de.telran.urlshortener.security.dto.UserDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction, so every write commits on its own like in production.
+ */
+@DataJpaTest
+@Import({UserService.class, UserCacheConfig.class, ReplicaConfig.class, UserServiceTest.Encoder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceTest {
+
+    @TestConfiguration
+    static class Encoder {
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return NoOpPasswordEncoder.getInstance();
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unknownLoginsAreNotCached() {
+        assertTrue(userService.getByLogin("newcomer").isEmpty());
+
+        // registered through another instance, so this cache is not invalidated
+        jdbcTemplate.update("INSERT INTO users (login, pas, first_name, last_name, roles) VALUES (?, ?, ?, ?, ?)",
+                "newcomer", "secret", "New", "Comer", "USER");
+
+        assertEquals("newcomer", userService.getByLogin("newcomer").orElseThrow().getLogin());
+    }
+
+    @Test
+    void callersGetTheirOwnCopy() {
+        UserDto first = userService.getByLogin("user").orElseThrow();
+        first.setPassword("changed");
+        first.setRoles(Set.of(Role.ADMIN));
+        UserDto second = userService.getByLogin("user").orElseThrow();
+
+        assertNotSame(first, second);
+        assertEquals("1234", second.getPassword());
+        assertEquals(Set.of(Role.USER), second.getRoles());
+        assertThrows(UnsupportedOperationException.class, () -> second.getRoles().add(Role.ADMIN));
+    }
+}
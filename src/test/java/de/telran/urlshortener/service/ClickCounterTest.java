@@ -0,0 +1,119 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.ClickCounterConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickCounterTest {
+
+    private static final int KEYS = 8;
+
+    @Test
+    void concurrentIncrementsAndFlushesLoseNoClicks() throws Exception {
+        InMemoryShortUrlStore store = storeWithKeys();
+        AtomicLong notified = new AtomicLong();
+        ClickCounterConfig config = new ClickCounterConfig();
+        config.setBatchSize(3);
+        ClickCounter counter = new ClickCounter(store, config, List.of((deltas, epochSecond) ->
+                deltas.forEach(delta -> notified.addAndGet(delta.getValue()))));
+
+        int threads = 8;
+        int clicksPerThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean clicking = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (clicking.get()) {
+                    counter.flush();
+                }
+            });
+            List<Future<?>> clickers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                clickers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < clicksPerThread; i++) {
+                        // one hot key and a few cold ones, so counters are both busy and idle
+                        counter.increment(random.nextBoolean() ? "key0" : "key" + random.nextInt(KEYS));
+                    }
+                }));
+            }
+            for (Future<?> clicker : clickers) {
+                clicker.get(60, TimeUnit.SECONDS);
+            }
+            clicking.set(false);
+            flusher.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        counter.flush();
+
+        long expected = (long) threads * clicksPerThread;
+        assertEquals(expected, totalClicks(store));
+        assertEquals(expected, notified.get());
+        assertEquals(0, counter.getPendingKeys());
+    }
+
+    @Test
+    void failedBatchesAreRequeuedAndWrittenOnTheNextFlush() {
+        AtomicInteger calls = new AtomicInteger();
+        InMemoryShortUrlStore store = new InMemoryShortUrlStore() {
+            @Override
+            public void applyClickDeltas(List<Map.Entry<String, Long>> deltas) {
+                if (calls.incrementAndGet() == 2) {
+                    throw new QueryTimeoutException("flush failed");
+                }
+                super.applyClickDeltas(deltas);
+            }
+        };
+        insertKeys(store);
+        List<Map.Entry<String, Long>> notified = new ArrayList<>();
+        ClickCounterConfig config = new ClickCounterConfig();
+        config.setBatchSize(2);
+        ClickCounter counter = new ClickCounter(store, config, List.of((deltas, epochSecond) -> notified.addAll(deltas)));
+
+        for (int i = 0; i < KEYS; i++) {
+            for (int c = 0; c <= i; c++) {
+                counter.increment("key" + i);
+            }
+        }
+        assertThrows(QueryTimeoutException.class, counter::flush);
+        assertEquals(2, notified.size(), "only the written batch reaches the listeners");
+        assertEquals(KEYS - 2, counter.getPendingKeys());
+
+        counter.flush();
+        long expected = KEYS * (KEYS + 1) / 2;
+        assertEquals(expected, totalClicks(store));
+        assertEquals(expected, notified.stream().mapToLong(Map.Entry::getValue).sum());
+    }
+
+    private static InMemoryShortUrlStore storeWithKeys() {
+        InMemoryShortUrlStore store = new InMemoryShortUrlStore();
+        insertKeys(store);
+        return store;
+    }
+
+    private static void insertKeys(InMemoryShortUrlStore store) {
+        List<ShortUrlEntity> entities = new ArrayList<>();
+        for (int i = 0; i < KEYS; i++) {
+            entities.add(ShortUrlEntity.builder().key("key" + i).fullUrl("https://example.com/" + i)
+                    .fullUrlHash("hash-" + i).clickCount(0L).build());
+        }
+        store.insertAll(entities);
+    }
+
+    private static long totalClicks(InMemoryShortUrlStore store) {
+        AtomicLong total = new AtomicLong();
+        store.scan(entity -> total.addAndGet(entity.getClickCount()));
+        return total.get();
+    }
+}
@@ -0,0 +1,209 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.config.ClickStatsConfig;
+import de.telran.urlshortener.dto.ClickStatsResponse;
+import de.telran.urlshortener.dto.StatsGranularity;
+import de.telran.urlshortener.entity.ClickRollupEntity;
+import de.telran.urlshortener.entity.ClickRollupId;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.exception.InvalidStatsRangeException;
+import de.telran.urlshortener.exception.ShortUrlNotFoundException;
+import de.telran.urlshortener.repository.ClickRollupRepository;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static de.telran.urlshortener.dto.StatsGranularity.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction, so every flush commits on its own like in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClickRollupServiceTest {
+
+    /**
+     * 2023-11-14T22:13:20Z, 20 seconds into a minute.
+     */
+    private static final long T = 1_700_000_000L;
+
+    /**
+     * Runs {@code beforeInsert} on another connection right before the batched insert.
+     */
+    private static class RacingJdbcTemplate extends JdbcTemplate {
+        Runnable beforeInsert;
+
+        RacingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (sql.startsWith("INSERT") && beforeInsert != null) {
+                CompletableFuture.runAsync(beforeInsert).join();
+                beforeInsert = null;
+            }
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ClickRollupRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private RacingJdbcTemplate jdbcTemplate;
+    private ClickStatsConfig config;
+    private ClickRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        jdbcTemplate = new RacingJdbcTemplate(dataSource);
+        config = new ClickStatsConfig();
+        InMemoryShortUrlStore store = new InMemoryShortUrlStore();
+        store.insertAll(List.of(ShortUrlEntity.builder().key("known").fullUrl("https://example.com/")
+                .fullUrlHash("hash").clickCount(0L).build()));
+        service = new ClickRollupService(jdbcTemplate, repository, store, config, transactionTemplate);
+    }
+
+    @Test
+    void flushAddsDeltasToMinuteHourAndDayBuckets() {
+        service.record(List.of(Map.entry("a", 3L), Map.entry("b", 1L)), T);
+        service.record(List.of(Map.entry("a", 2L)), T + 30);
+        service.flush();
+        assertEquals(0, service.getPendingBuckets());
+
+        // next minute, same hour and day: inserts one row, updates two
+        service.record(List.of(Map.entry("a", 4L)), T + 60);
+        service.flush();
+
+        assertEquals(5L, clicks("a", MINUTE, 1_699_999_980L));
+        assertEquals(4L, clicks("a", MINUTE, 1_700_000_040L));
+        assertEquals(9L, clicks("a", HOUR, 1_699_999_200L));
+        assertEquals(9L, clicks("a", DAY, 1_699_920_000L));
+        assertEquals(1L, clicks("b", HOUR, 1_699_999_200L));
+        assertEquals(7, repository.count());
+    }
+
+    @Test
+    void racedInsertIsRequeuedAndUpdatedOnTheNextFlush() {
+        service.record(List.of(Map.entry("a", 3L)), T);
+        jdbcTemplate.beforeInsert = () -> new JdbcTemplate(dataSource).update(
+                "INSERT INTO click_rollups (short_url, granularity, bucket_start, clicks) VALUES (?, ?, ?, ?)",
+                "a", HOUR.ordinal(), HOUR.bucketStart(T), 10L);
+
+        service.flush();
+        assertEquals(3, service.getPendingBuckets(), "the whole batch is re-queued");
+        assertEquals(10L, clicks("a", HOUR, HOUR.bucketStart(T)), "the failed transaction wrote nothing");
+        assertNull(clicks("a", MINUTE, MINUTE.bucketStart(T)));
+
+        service.flush();
+        assertEquals(0, service.getPendingBuckets());
+        assertEquals(13L, clicks("a", HOUR, HOUR.bucketStart(T)));
+        assertEquals(3L, clicks("a", MINUTE, MINUTE.bucketStart(T)));
+        assertEquals(3L, clicks("a", DAY, DAY.bucketStart(T)));
+    }
+
+    @Test
+    void purgeDropsMinuteAndHourRowsPastTheirRetention() {
+        long now = Instant.now().getEpochSecond();
+        save("a", MINUTE, MINUTE.bucketStart(now - config.getMinuteRetention().toSeconds() - 120));
+        save("a", MINUTE, MINUTE.bucketStart(now - 60));
+        save("a", HOUR, HOUR.bucketStart(now - config.getHourRetention().toSeconds() - 7_200));
+        save("a", HOUR, HOUR.bucketStart(now - config.getMinuteRetention().toSeconds() - 7_200));
+        save("a", DAY, DAY.bucketStart(now - Duration.ofDays(1_000).toSeconds()));
+
+        service.purge();
+
+        assertEquals(Set.of(MINUTE.bucketStart(now - 60),
+                        HOUR.bucketStart(now - config.getMinuteRetention().toSeconds() - 7_200),
+                        DAY.bucketStart(now - Duration.ofDays(1_000).toSeconds())),
+                new HashSet<>(repository.findAll().stream().map(rollup -> rollup.getId().getBucketStart()).toList()));
+    }
+
+    @Test
+    void purgeDeletesInBatchesAndStopsAtTheCap() {
+        config.setPurgeBatchSize(2);
+        config.setPurgeMaxBatches(2);
+        long old = MINUTE.bucketStart(Instant.now().getEpochSecond() - config.getMinuteRetention().toSeconds() - 3_600);
+        for (int i = 0; i < 5; i++) {
+            save("a" + i, MINUTE, old);
+        }
+
+        service.purge();
+        assertEquals(1, repository.count(), "two batches of two per run");
+
+        service.purge();
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void statsReportEveryBucketOfTheRange() {
+        service.record(List.of(Map.entry("known", 2L)), T);
+        service.record(List.of(Map.entry("known", 5L)), T + 120);
+        service.flush();
+
+        ClickStatsResponse stats = service.getStats("known", MINUTE,
+                Instant.ofEpochSecond(T - 60), Instant.ofEpochSecond(T + 150));
+
+        assertEquals(Instant.ofEpochSecond(1_699_999_920L), stats.getFrom());
+        assertEquals(Instant.ofEpochSecond(1_700_000_160L), stats.getTo(), "the bucket holding to is included");
+        assertEquals(List.of(0L, 2L, 0L, 5L), stats.getPoints().stream().map(ClickStatsResponse.Point::clicks).toList());
+        assertEquals(7, stats.getTotal());
+    }
+
+    @Test
+    void statsRangesAreCappedAtMaxPoints() {
+        config.setMaxPoints(10);
+        Instant to = Instant.ofEpochSecond(T);
+
+        ClickStatsResponse capped = service.getStats("known", HOUR, to.minus(Duration.ofDays(30)), to);
+        assertEquals(10, capped.getPoints().size());
+        assertEquals(Instant.ofEpochSecond(HOUR.bucketStart(T) - 9 * 3_600L), capped.getFrom());
+
+        config.setMaxPoints(1_000);
+        assertEquals(60, service.getStats("known", MINUTE, null, to).getPoints().size(), "60 points by default");
+        assertEquals(1, service.getStats("known", DAY, to, to).getPoints().size());
+    }
+
+    @Test
+    void statsRejectReversedRangesAndUnknownKeys() {
+        Instant to = Instant.ofEpochSecond(T);
+        assertThrows(InvalidStatsRangeException.class,
+                () -> service.getStats("known", HOUR, to.plusSeconds(1), to));
+        assertThrows(InvalidStatsRangeException.class,
+                () -> service.getStats("known", HOUR, Instant.now().plus(Duration.ofDays(1)), null));
+        assertThrows(ShortUrlNotFoundException.class, () -> service.getStats("unknown", HOUR, null, to));
+        assertEquals(0, service.getStats("known", HOUR, null, to).getTotal());
+    }
+
+    private Long clicks(String key, StatsGranularity granularity, long bucketStart) {
+        return repository.findById(new ClickRollupId(key, granularity, bucketStart))
+                .map(ClickRollupEntity::getClicks)
+                .orElse(null);
+    }
+
+    private void save(String key, StatsGranularity granularity, long bucketStart) {
+        repository.save(new ClickRollupEntity(new ClickRollupId(key, granularity, bucketStart), 1L));
+    }
+}
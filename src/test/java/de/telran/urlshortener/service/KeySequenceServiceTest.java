@@ -0,0 +1,73 @@
+package de.telran.urlshortener.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction, so every lease commits on its own like in production.
+ */
+@DataJpaTest
+@Import(KeySequenceService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KeySequenceServiceTest {
+
+    private static final int BLOCK_SIZE = 100;
+
+    @Autowired
+    private KeySequenceService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearTable() {
+        jdbcTemplate.update("DELETE FROM key_sequence");
+    }
+
+    @Test
+    void leasesConsecutiveBlocks() {
+        assertEquals(0, service.leaseBlock("test", BLOCK_SIZE));
+        assertEquals(BLOCK_SIZE, service.leaseBlock("test", BLOCK_SIZE));
+        assertEquals(0, service.leaseBlock("other", BLOCK_SIZE), "counters are independent");
+        assertEquals(2L * BLOCK_SIZE, service.leaseBlock("test", 2 * BLOCK_SIZE));
+        assertEquals(4L * BLOCK_SIZE, service.leaseBlock("test", BLOCK_SIZE));
+    }
+
+    @Test
+    void concurrentFirstLeasesGetDisjointBlocks() throws Exception {
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> leases = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                leases.add(executor.submit(() -> {
+                    barrier.await();
+                    return service.leaseBlock("race", BLOCK_SIZE);
+                }));
+            }
+            Set<Long> starts = new TreeSet<>();
+            for (Future<Long> lease : leases) {
+                starts.add(lease.get(30, TimeUnit.SECONDS));
+            }
+            Set<Long> expected = new TreeSet<>();
+            for (long i = 0; i < threads; i++) {
+                expected.add(i * BLOCK_SIZE);
+            }
+            assertEquals(expected, starts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
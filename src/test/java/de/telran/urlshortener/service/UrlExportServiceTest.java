@@ -0,0 +1,53 @@
+package de.telran.urlshortener.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telran.urlshortener.dto.UrlListFormat;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.exception.UnsupportedFormatException;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlExportServiceTest {
+
+    @Test
+    void quotesCsvFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        InMemoryShortUrlStore store = new InMemoryShortUrlStore();
+        store.insertAll(List.of(
+                entity("plain001", "https://example.com/plain"),
+                entity("comma001", "https://example.com/?a=1,2"),
+                entity("quote001", "https://example.com/\"q\""),
+                entity("lf000001", "https://example.com/\nx"),
+                entity("cr000001", "https://example.com/\rx")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long count = new UrlExportService(store, new ObjectMapper()).exportUrls(UrlListFormat.CSV, output);
+
+        assertEquals(5, count);
+        String csv = output.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("key,fullUrl,clickCount\n"));
+        assertTrue(csv.contains("plain001,https://example.com/plain,0\n"));
+        assertTrue(csv.contains("comma001,\"https://example.com/?a=1,2\",0\n"));
+        assertTrue(csv.contains("quote001,\"https://example.com/\"\"q\"\"\",0\n"));
+        assertTrue(csv.contains("lf000001,\"https://example.com/\nx\",0\n"));
+        assertTrue(csv.contains("cr000001,\"https://example.com/\rx\",0\n"));
+    }
+
+    @Test
+    void parsesFormatNamesAndListsTheAllowedOnes() {
+        assertEquals(UrlListFormat.CSV, UrlListFormat.fromName("csv"));
+        assertEquals(UrlListFormat.NDJSON, UrlListFormat.fromName("NDJSON"));
+        UnsupportedFormatException e = assertThrows(UnsupportedFormatException.class,
+                () -> UrlListFormat.fromName("xml"));
+        assertEquals("Unsupported format 'xml', expected one of: csv, ndjson", e.getMessage());
+    }
+
+    private static ShortUrlEntity entity(String key, String fullUrl) {
+        return ShortUrlEntity.builder().key(key).fullUrl(fullUrl).fullUrlHash("hash-" + key).clickCount(0L).build();
+    }
+}
@@ -0,0 +1,121 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.*;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.store.JpaShortUrlStore;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import de.telran.urlshortener.util.UrlNormalizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without a test transaction, so every backfill batch commits on its own like in production.
+ */
+@DataJpaTest
+@Import(JpaShortUrlStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UrlHashBackfillTest {
+
+    @Autowired
+    private JpaShortUrlStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UrlHashBackfillConfig config;
+    private UrlHashBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM urls");
+        // rows from before full_url_hash existed, one URL already shortened since; ids clear of urls_seq
+        insert(1_000_001, "old001", "https://Example.com", null);
+        insert(1_000_002, "old002", "https://example.com/", null);
+        insert(1_000_003, "old003", "https://example.com/b", null);
+        insert(1_000_004, "new004", "https://example.com/c", UrlNormalizer.digest("https://example.com/c"));
+        insert(1_000_005, "old005", "https://example.com/c ", null);
+        config = new UrlHashBackfillConfig();
+        backfill = new UrlHashBackfill(store, config);
+    }
+
+    @Test
+    void backfillsInBatchesAndSkipsDigestsAlreadyTaken() {
+        config.setBatchSize(2);
+        config.setMaxBatches(1);
+        assertEquals(Map.of("https://example.com/b", "old003"),
+                backfill.findKeysOfUndigestedUrls(List.of("https://example.com/b", "https://example.com/x")));
+
+        backfill.backfill();
+        assertFalse(backfill.isComplete());
+        assertEquals(UrlNormalizer.digest("https://example.com/"), hash("old001"));
+        assertNull(hash("old002"), "the first of two equal URLs keeps the digest");
+        assertNull(hash("old003"), "beyond the first batch");
+
+        backfill.backfill();
+        backfill.backfill();
+        assertTrue(backfill.isComplete());
+        assertEquals(UrlNormalizer.digest("https://example.com/b"), hash("old003"));
+        assertNull(hash("old005"));
+        assertEquals(Map.of(), backfill.findKeysOfUndigestedUrls(List.of("https://example.com/c ")),
+                "no fallback once the backfill is complete");
+    }
+
+    @Test
+    void createsReuseUndigestedKeysUntilTheBackfillIsComplete() {
+        UrlShortenerService service = service();
+
+        assertEquals("old003", service.createShortUrl(request("https://example.com/b")).getKey());
+        List<ShortUrlBatchResponse> responses = service.createShortUrls(
+                List.of(request("https://Example.com"), request("https://example.com/new")));
+        assertEquals("old001", responses.get(0).getKey());
+        assertEquals(ShortUrlBatchResponse.Status.EXISTING, responses.get(0).getStatus());
+        assertEquals(ShortUrlBatchResponse.Status.CREATED, responses.get(1).getStatus());
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM urls", Integer.class));
+    }
+
+    private UrlShortenerService service() {
+        ShortUrlConfig shortUrlConfig = new ShortUrlConfig();
+        shortUrlConfig.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789");
+        shortUrlConfig.setKeyLength(8);
+        RedirectCacheConfig cacheConfig = new RedirectCacheConfig();
+        RedirectCache redirectCache = new RedirectCache(cacheConfig);
+        LinkExpiryConfig expiryConfig = new LinkExpiryConfig();
+        return new UrlShortenerService(store, new ShortUrlUtil(shortUrlConfig, null), shortUrlConfig, redirectCache,
+                new KeyPrefilter(store, new KeyFilterConfig(), shortUrlConfig),
+                new ClickCounter(store, new ClickCounterConfig(), List.of()),
+                new UrlShortenerMetrics(new SimpleMeterRegistry()), new ReplicaConfig(),
+                new LinkExpiryTracker(redirectCache, cacheConfig, expiryConfig), expiryConfig, backfill);
+    }
+
+    private static ShortUrlRequest request(String url) {
+        ShortUrlRequest request = new ShortUrlRequest();
+        request.setUrl(url);
+        return request;
+    }
+
+    private void insert(long id, String key, String fullUrl, String fullUrlHash) {
+        jdbcTemplate.update("INSERT INTO urls (id, short_url, full_url, full_url_hash, click_count) VALUES (?, ?, ?, ?, 0)",
+                id, key, fullUrl, fullUrlHash);
+    }
+
+    private String hash(String key) {
+        return jdbcTemplate.queryForObject("SELECT full_url_hash FROM urls WHERE short_url = ?", String.class, key);
+    }
+}
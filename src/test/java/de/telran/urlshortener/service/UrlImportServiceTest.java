@@ -0,0 +1,157 @@
+package de.telran.urlshortener.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.*;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.UrlListFormat;
+import de.telran.urlshortener.exception.ImportLineTooLongException;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static de.telran.urlshortener.dto.ShortUrlBatchResponse.Status.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlImportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private InMemoryShortUrlStore store;
+    private ShortUrlConfig config;
+    private UrlImportService importService;
+
+    /**
+     * Counts flushes, which commit an HTTP response.
+     */
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream() {
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    };
+    private int flushes;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryShortUrlStore();
+        config = new ShortUrlConfig();
+        config.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789");
+        config.setKeyLength(8);
+        config.setImportChunkSize(2);
+        config.setImportMaxLineLength(100);
+        RedirectCacheConfig cacheConfig = new RedirectCacheConfig();
+        RedirectCache redirectCache = new RedirectCache(cacheConfig);
+        LinkExpiryConfig expiryConfig = new LinkExpiryConfig();
+        UrlShortenerService service = new UrlShortenerService(store, new ShortUrlUtil(config, null), config,
+                redirectCache, new KeyPrefilter(store, new KeyFilterConfig(), config),
+                new ClickCounter(store, new ClickCounterConfig(), List.of()),
+                new UrlShortenerMetrics(new SimpleMeterRegistry()), new ReplicaConfig(),
+                new LinkExpiryTracker(redirectCache, cacheConfig, expiryConfig), expiryConfig,
+                new UrlHashBackfill(store, new UrlHashBackfillConfig()));
+        importService = new UrlImportService(service, config, objectMapper);
+    }
+
+    @Test
+    void importsCsvWithAHeaderAndQuotedColumns() throws IOException {
+        long imported = importCsv("URL,comment\r\nhttps://example.com/a,first\r\n\"https://example.com/b?x=1,2\",\"q\"\r\n\r\n");
+
+        assertEquals(2, imported);
+        List<ShortUrlBatchResponse> results = results();
+        assertEquals(List.of("https://example.com/a", "https://example.com/b?x=1,2"),
+                results.stream().map(ShortUrlBatchResponse::getUrl).toList());
+        assertEquals("https://example.com/b?x=1,2", store.findFullUrl(results.get(1).getKey()));
+    }
+
+    @Test
+    void importsCsvWithoutAHeader() throws IOException {
+        assertEquals(2, importCsv("https://example.com/a\rhttps://example.com/b"));
+
+        assertEquals(List.of(CREATED, CREATED), results().stream().map(ShortUrlBatchResponse::getStatus).toList());
+    }
+
+    @Test
+    void importsNdjson() throws IOException {
+        String input = "{\"url\":\"https://example.com/a\"}\n{\"url\":\"https://example.com/b\",\"ttl\":\"PT1H\"}\n{}\n";
+
+        assertEquals(3, importService.importUrls(stream(input), UrlListFormat.NDJSON, output));
+
+        assertEquals(List.of(CREATED, CREATED, INVALID), results().stream().map(ShortUrlBatchResponse::getStatus).toList());
+    }
+
+    @Test
+    void resultsKeepTheirOrderAcrossChunkBoundaries() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            input.append("https://example.com/").append(i % 3).append('\n');
+        }
+
+        // chunks of 2, 2 and 1
+        assertEquals(5, importCsv(input.toString()));
+
+        List<ShortUrlBatchResponse> results = results();
+        assertEquals(List.of(CREATED, CREATED, CREATED, EXISTING, EXISTING),
+                results.stream().map(ShortUrlBatchResponse::getStatus).toList(), "duplicates across chunks");
+        assertEquals(results.get(0).getKey(), results.get(3).getKey());
+        assertEquals(results.get(1).getKey(), results.get(4).getKey());
+    }
+
+    @Test
+    void inputEndingOnAChunkBoundaryWritesNoEmptyChunk() throws IOException {
+        assertEquals(4, importService.importUrls(stream("{\"url\":\"https://example.com/a\"}\n"
+                + "{\"url\":\"https://example.com/b\"}\n{\"url\":\"https://example.com/c\"}\n"
+                + "{\"url\":\"https://example.com/a\"}"), UrlListFormat.NDJSON, output));
+
+        assertEquals(List.of(CREATED, CREATED, CREATED, EXISTING),
+                results().stream().map(ShortUrlBatchResponse::getStatus).toList());
+    }
+
+    @Test
+    void rejectsOverlongCsvLinesWithoutReadingThemWhole() {
+        String longLine = "https://example.com/" + "x".repeat(100);
+
+        ImportLineTooLongException e = assertThrows(ImportLineTooLongException.class,
+                () -> importCsv("url\n" + longLine + "\nhttps://example.com/a\n"));
+        assertTrue(e.getMessage().contains("record 2"), e.getMessage());
+        assertEquals(0, output.size(), "nothing was written");
+        assertEquals(0, flushes, "the response is not committed, so it can still be a 400");
+    }
+
+    @Test
+    void rejectsOverlongNdjsonUrls() {
+        String input = "{\"url\":\"https://example.com/" + "x".repeat(100) + "\"}\n";
+
+        assertThrows(ImportLineTooLongException.class,
+                () -> importService.importUrls(stream(input), UrlListFormat.NDJSON, output));
+        assertEquals(0, output.size());
+        assertEquals(0, flushes);
+    }
+
+    private long importCsv(String input) throws IOException {
+        return importService.importUrls(stream(input), UrlListFormat.CSV, output);
+    }
+
+    private static ByteArrayInputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<ShortUrlBatchResponse> results() throws IOException {
+        List<ShortUrlBatchResponse> results = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readValue(line, ShortUrlBatchResponse.class));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,139 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.*;
+import de.telran.urlshortener.dto.ShortUrlBatchResponse;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import de.telran.urlshortener.exception.BatchTooLargeException;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import de.telran.urlshortener.util.UrlNormalizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.*;
+
+import static de.telran.urlshortener.dto.ShortUrlBatchResponse.Status.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlShortenerServiceBatchTest {
+
+    /**
+     * Fails the next batched insert, after another instance shortened {@code concurrentUrl}.
+     */
+    private static class RacingStore extends InMemoryShortUrlStore {
+        String concurrentUrl;
+        String concurrentKey;
+        int batchInserts;
+
+        @Override
+        public synchronized void insertAll(Collection<ShortUrlEntity> entities) {
+            if (entities.size() > 1 && concurrentUrl != null) {
+                batchInserts++;
+                super.insertAll(List.of(ShortUrlEntity.builder().key(concurrentKey).fullUrl(concurrentUrl)
+                        .fullUrlHash(UrlNormalizer.digest(concurrentUrl)).clickCount(0L).build()));
+                concurrentUrl = null;
+                throw new DataIntegrityViolationException("duplicate full_url_hash");
+            }
+            super.insertAll(entities);
+        }
+    }
+
+    private RacingStore store;
+    private ShortUrlConfig config;
+    private UrlShortenerService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new RacingStore();
+        config = new ShortUrlConfig();
+        config.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789");
+        config.setKeyLength(8);
+        config.setMaxBatchSize(10);
+        RedirectCacheConfig cacheConfig = new RedirectCacheConfig();
+        RedirectCache redirectCache = new RedirectCache(cacheConfig);
+        LinkExpiryConfig expiryConfig = new LinkExpiryConfig();
+        service = new UrlShortenerService(store, new ShortUrlUtil(config, null), config, redirectCache,
+                new KeyPrefilter(store, new KeyFilterConfig(), config),
+                new ClickCounter(store, new ClickCounterConfig(), List.of()),
+                new UrlShortenerMetrics(new SimpleMeterRegistry()), new ReplicaConfig(),
+                new LinkExpiryTracker(redirectCache, cacheConfig, expiryConfig), expiryConfig,
+                new UrlHashBackfill(store, new UrlHashBackfillConfig()));
+    }
+
+    @Test
+    void reportsEveryItemInRequestOrder() {
+        String existingKey = service.createShortUrl(request("https://example.com/old")).getKey();
+        ShortUrlRequest badExpiry = request("https://example.com/past");
+        badExpiry.setTtl(Duration.ofSeconds(-1));
+        ShortUrlRequest expiring = request("https://example.com/old");
+        expiring.setTtl(Duration.ofHours(1));
+
+        List<ShortUrlBatchResponse> responses = service.createShortUrls(Arrays.asList(
+                request("https://example.com/a"),
+                null,
+                request("https://example.com/old"),
+                request(" "),
+                request("https://example.com/a"),
+                badExpiry,
+                expiring,
+                request("https://example.com/b")));
+
+        assertEquals(List.of(CREATED, INVALID, EXISTING, INVALID, EXISTING, INVALID, CREATED, CREATED),
+                responses.stream().map(ShortUrlBatchResponse::getStatus).toList());
+        assertEquals(Arrays.asList("https://example.com/a", null, "https://example.com/old", " ",
+                        "https://example.com/a", "https://example.com/past", "https://example.com/old",
+                        "https://example.com/b"),
+                responses.stream().map(ShortUrlBatchResponse::getUrl).toList());
+        assertEquals(existingKey, responses.get(2).getKey());
+        assertEquals(responses.get(0).getKey(), responses.get(4).getKey(), "in-batch duplicates share the first key");
+        assertNotEquals(existingKey, responses.get(6).getKey(), "expiring links are never deduplicated");
+        assertNull(responses.get(1).getKey());
+        assertEquals(4, new HashSet<>(responses.stream().map(ShortUrlBatchResponse::getKey)
+                .filter(Objects::nonNull).toList()).size());
+        assertEquals("https://example.com/b", store.findFullUrl(responses.get(7).getKey()));
+    }
+
+    @Test
+    void retriesItemsOneByOneWhenTheBatchInsertConflicts() {
+        store.concurrentUrl = "https://example.com/raced";
+        store.concurrentKey = "racedkey";
+
+        List<ShortUrlBatchResponse> responses = service.createShortUrls(List.of(
+                request("https://example.com/first"),
+                request("https://example.com/raced"),
+                request("https://example.com/last"),
+                request("https://example.com/raced")));
+
+        assertEquals(1, store.batchInserts);
+        assertEquals(List.of(CREATED, EXISTING, CREATED, EXISTING),
+                responses.stream().map(ShortUrlBatchResponse::getStatus).toList());
+        assertEquals("racedkey", responses.get(1).getKey(), "the concurrently created key is reported");
+        assertEquals("racedkey", responses.get(3).getKey());
+        assertEquals("https://example.com/first", store.findFullUrl(responses.get(0).getKey()));
+        assertEquals("https://example.com/last", store.findFullUrl(responses.get(2).getKey()));
+        assertEquals("racedkey", store.findKeyByFullUrlHash(UrlNormalizer.digest("https://example.com/raced")));
+    }
+
+    @Test
+    void rejectsBatchesAboveTheLimit() {
+        List<ShortUrlRequest> requests = new ArrayList<>();
+        for (int i = 0; i <= config.getMaxBatchSize(); i++) {
+            requests.add(request("https://example.com/" + i));
+        }
+        assertThrows(BatchTooLargeException.class, () -> service.createShortUrls(requests));
+    }
+
+    private static ShortUrlRequest request(String url) {
+        ShortUrlRequest request = new ShortUrlRequest();
+        request.setUrl(url);
+        return request;
+    }
+}
@@ -0,0 +1,70 @@
+package de.telran.urlshortener.service;
+
+import de.telran.urlshortener.cache.KeyPrefilter;
+import de.telran.urlshortener.cache.LinkExpiryTracker;
+import de.telran.urlshortener.cache.RedirectCache;
+import de.telran.urlshortener.config.*;
+import de.telran.urlshortener.dto.ShortUrlRequest;
+import de.telran.urlshortener.exception.ShortUrlNotFoundException;
+import de.telran.urlshortener.monitoring.UrlShortenerMetrics;
+import de.telran.urlshortener.store.InMemoryShortUrlStore;
+import de.telran.urlshortener.store.ShortUrlStore;
+import de.telran.urlshortener.util.ShortUrlUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redirects without a running scheduler: the expiry tick never fires here.
+ */
+class UrlShortenerServiceRedirectTest {
+
+    private RedirectCache redirectCache;
+    private UrlShortenerService service;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryShortUrlStore store = new InMemoryShortUrlStore();
+        ShortUrlConfig config = new ShortUrlConfig();
+        config.setAllowedCharacters("abcdefghijklmnopqrstuvwxyz0123456789");
+        config.setKeyLength(8);
+        RedirectCacheConfig cacheConfig = new RedirectCacheConfig();
+        redirectCache = new RedirectCache(cacheConfig);
+        LinkExpiryConfig expiryConfig = new LinkExpiryConfig();
+        service = new UrlShortenerService(store, new ShortUrlUtil(config, null), config, redirectCache,
+                new KeyPrefilter(store, new KeyFilterConfig(), config),
+                new ClickCounter(store, new ClickCounterConfig(), List.of()),
+                new UrlShortenerMetrics(new SimpleMeterRegistry()), new ReplicaConfig(),
+                new LinkExpiryTracker(redirectCache, cacheConfig, expiryConfig), expiryConfig,
+                new UrlHashBackfill(store, new UrlHashBackfillConfig()));
+    }
+
+    @Test
+    void expiredCachedLinkIsNotServedWithoutATick() throws InterruptedException {
+        ShortUrlRequest request = new ShortUrlRequest();
+        request.setUrl("https://example.com/short-lived");
+        request.setTtl(Duration.ofMillis(50));
+        String key = service.createShortUrl(request).getKey();
+        assertEquals("https://example.com/short-lived", service.getFullUrl(key).getUrl(), "served from the cache");
+
+        Thread.sleep(100);
+        assertThrows(ShortUrlNotFoundException.class, () -> service.getFullUrl(key));
+    }
+
+    @Test
+    void expiredEntryIsDroppedOnTheHitPath() {
+        redirectCache.put("cachedkey", new ShortUrlStore.Link("https://example.com/old", Instant.now().minusSeconds(1)));
+
+        redirectCache.put("livekey1", new ShortUrlStore.Link("https://example.com/live", Instant.now().plusSeconds(60)));
+
+        assertThrows(ShortUrlNotFoundException.class, () -> service.getFullUrl("cachedkey"));
+        assertNull(redirectCache.get("cachedkey", key -> null), "the expired entry is gone");
+        assertEquals("https://example.com/live", service.getFullUrl("livekey1").getUrl());
+    }
+}
@@ -0,0 +1,11 @@
+package de.telran.urlshortener.store;
+
+class InMemoryShortUrlStoreTest extends ShortUrlStoreConformanceTest {
+
+    private final InMemoryShortUrlStore store = new InMemoryShortUrlStore();
+
+    @Override
+    protected ShortUrlStore store() {
+        return store;
+    }
+}
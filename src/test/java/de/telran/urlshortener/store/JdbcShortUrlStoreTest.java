@@ -0,0 +1,67 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.config.StorageConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on the schema Hibernate generates for {@code ShortUrlEntity}, without a test transaction.
+ */
+@DataJpaTest
+@Import({JdbcShortUrlStore.class, StorageConfig.class})
+@TestPropertySource(properties = "short-url.storage.backend=jdbc")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcShortUrlStoreTest extends ShortUrlStoreConformanceTest {
+
+    @Autowired
+    private JdbcShortUrlStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void clearTable() {
+        jdbcTemplate.update("DELETE FROM urls");
+    }
+
+    @Test
+    void scansInKeysetPagesOutsideOfAnyTransaction() {
+        List<ShortUrlEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            entities.add(ShortUrlEntity.builder().key("key" + i).fullUrl("https://example.com/" + i).clickCount(0L).build());
+        }
+        store.insertAll(entities);
+
+        List<Long> ids = new ArrayList<>();
+        JdbcShortUrlStore.scan(jdbcTemplate, transactionTemplate, 7, entity -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive(), "the page transaction has ended");
+            ids.add(entity.getId());
+        });
+
+        assertEquals(20, ids.size());
+        assertEquals(ids.stream().sorted().distinct().toList(), ids, "ascending ids, none twice across pages");
+    }
+
+    @Override
+    protected ShortUrlStore store() {
+        return store;
+    }
+}
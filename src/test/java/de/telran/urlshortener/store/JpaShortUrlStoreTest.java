@@ -0,0 +1,34 @@
+package de.telran.urlshortener.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs without a test transaction, so every store call commits on its own like in production.
+ */
+@DataJpaTest
+@Import(JpaShortUrlStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaShortUrlStoreTest extends ShortUrlStoreConformanceTest {
+
+    @Autowired
+    private JpaShortUrlStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearTable() {
+        jdbcTemplate.update("DELETE FROM urls");
+    }
+
+    @Override
+    protected ShortUrlStore store() {
+        return store;
+    }
+}
@@ -0,0 +1,190 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.config.StorageConfig;
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedShortUrlStoreTest extends ShortUrlStoreConformanceTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedShortUrlStore store;
+
+    @BeforeEach
+    void openStore() throws IOException {
+        store = open(1 << 20);
+    }
+
+    @Override
+    protected ShortUrlStore store() {
+        return store;
+    }
+
+    @Test
+    void recordsSurviveReopenAcrossSegmentsAndIndexGrowth() throws IOException {
+        MappedShortUrlStore written = open(4096, "segments");
+        for (int i = 0; i < 500; i++) {
+            written.insert(entity("k" + i, "https://example.com/" + i));
+        }
+        written.applyClickDeltas(List.of(Map.entry("k7", 5L)));
+        written.applyClickDeltas(List.of(Map.entry("k7", 2L), Map.entry("k8", 1L)));
+        assertTrue(Files.exists(directory.resolve("segments/segment-000001.log")), "records roll over into new segments");
+
+        MappedShortUrlStore reopened = open(4096, "segments");
+        for (int i = 0; i < 500; i++) {
+            assertEquals("https://example.com/" + i, reopened.findFullUrl("k" + i));
+            assertEquals("k" + i, reopened.findKeyByFullUrlHash("hash-k" + i));
+        }
+        assertNull(reopened.findFullUrl("missing"));
+        Set<String> keys = new HashSet<>();
+        reopened.forEachKey(keys::add);
+        assertEquals(500, keys.size());
+        Map<String, Long> clicks = new HashMap<>();
+        reopened.scan(entity -> clicks.put(entity.getKey(), entity.getClickCount()));
+        assertEquals(7L, clicks.get("k7"));
+        assertEquals(1L, clicks.get("k8"));
+        assertEquals(0L, clicks.get("k9"));
+    }
+
+    @Test
+    void expiriesAndPurgesSurviveReopen() throws IOException {
+        MappedShortUrlStore written = open(4096, "expiring");
+        Instant past = Instant.now().minusSeconds(60);
+        Instant later = Instant.ofEpochMilli(System.currentTimeMillis() + 3_600_000);
+        for (int i = 0; i < 3; i++) {
+            written.insert(expiring("exp" + i, "https://example.com/" + i, past.plusSeconds(i)));
+        }
+        written.insert(expiring("later", "https://example.com/later", later));
+        written.insert(entity("kept", "https://example.com/kept"));
+        assertEquals(List.of("exp0", "exp1"), written.deleteExpired(Instant.now(), 2));
+
+        MappedShortUrlStore reopened = open(4096, "expiring");
+        assertNull(reopened.findLink("exp0"));
+        assertNull(reopened.findLink("exp2"), "expired, not purged yet");
+        assertEquals(later, reopened.findLink("later").expiresAt());
+        assertEquals(List.of("exp2"), reopened.deleteExpired(Instant.now(), 10));
+        reopened.insert(entity("exp0", "https://example.com/reused"));
+
+        MappedShortUrlStore again = open(4096, "expiring");
+        Set<String> keys = new HashSet<>();
+        again.forEachKey(keys::add);
+        assertEquals(Set.of("later", "kept", "exp0"), keys);
+        assertEquals("https://example.com/reused", again.findFullUrl("exp0"));
+        assertEquals("kept", again.findKeyByFullUrlHash("hash-kept"));
+    }
+
+    @Test
+    void tornLastRecordIsDroppedOnRecovery() throws IOException {
+        MappedShortUrlStore written = open(1 << 16, "torn");
+        written.insert(entity("first", "https://example.com/first"));
+        written.insert(entity("second", "https://example.com/second"));
+        written.close();
+
+        // flip the last byte of the second record, as if the crash hit in the middle of it
+        Path segment = directory.resolve("torn/segment-000000.log");
+        int end = 2 * SegmentLog.HEADER_BYTES + recordLength("first", "https://example.com/first")
+                + recordLength("second", "https://example.com/second");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.put(end - 1, (byte) (buffer.get(end - 1) ^ 0xFF));
+            buffer.force();
+        }
+
+        MappedShortUrlStore recovered = open(1 << 16, "torn");
+        assertEquals("https://example.com/first", recovered.findFullUrl("first"));
+        assertNull(recovered.findFullUrl("second"));
+
+        recovered.insert(entity("third", "https://example.com/third"));
+        MappedShortUrlStore again = open(1 << 16, "torn");
+        assertEquals("https://example.com/third", again.findFullUrl("third"));
+        assertNull(again.findFullUrl("second"));
+    }
+
+    @Test
+    void batchesAndInitialClicksSurviveReopen() throws IOException {
+        MappedShortUrlStore written = open(4096, "batch");
+        Instant later = Instant.ofEpochMilli(System.currentTimeMillis() + 3_600_000);
+        written.insert(entity("single", "https://example.com/single"));
+        ShortUrlEntity clicked = entity("clicked", "https://example.com/clicked");
+        clicked.setClickCount(5L);
+        written.insertAll(List.of(entity("b1", "https://example.com/b1"), clicked,
+                expiring("b3", "https://example.com/b3", later)));
+        ShortUrlEntity imported = entity("imported", "https://example.com/imported");
+        imported.setClickCount(2L);
+        written.insert(imported);
+        written.applyClickDeltas(List.of(Map.entry("clicked", 1L)));
+
+        MappedShortUrlStore reopened = open(4096, "batch");
+        Map<String, Long> clicks = new HashMap<>();
+        reopened.scan(entity -> clicks.put(entity.getKey(), entity.getClickCount()));
+        assertEquals(Map.of("single", 0L, "b1", 0L, "clicked", 6L, "b3", 0L, "imported", 2L), clicks);
+        assertEquals("b1", reopened.findKeyByFullUrlHash("hash-b1"));
+        assertEquals(later, reopened.findLink("b3").expiresAt());
+
+        reopened.insert(entity("after", "https://example.com/after"));
+        reopened.applyClickDeltas(List.of(Map.entry("after", 3L)));
+        Map<String, Long> again = new HashMap<>();
+        open(4096, "batch").scan(entity -> again.put(entity.getKey(), entity.getClickCount()));
+        assertEquals(3L, again.get("after"), "ordinals continue behind the batch");
+        assertEquals(6L, again.get("clicked"));
+    }
+
+    @Test
+    void tornBatchIsDroppedAsAWhole() throws IOException {
+        MappedShortUrlStore written = open(1 << 16, "torn-batch");
+        written.insert(entity("first", "https://example.com/first"));
+        written.insertAll(List.of(entity("b1", "https://example.com/b1"), entity("b2", "https://example.com/b2"),
+                entity("b3", "https://example.com/b3")));
+        written.close();
+
+        // flip the last byte of the batch, as if the crash hit while its last mapping was written
+        Path segment = directory.resolve("torn-batch/segment-000000.log");
+        int batchLength = 1 + Integer.BYTES;
+        for (String key : List.of("b1", "b2", "b3")) {
+            batchLength += Integer.BYTES + Long.BYTES + recordLength(key, "https://example.com/" + key);
+        }
+        int end = 2 * SegmentLog.HEADER_BYTES + recordLength("first", "https://example.com/first") + batchLength;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.put(end - 1, (byte) (buffer.get(end - 1) ^ 0xFF));
+            buffer.force();
+        }
+
+        MappedShortUrlStore recovered = open(1 << 16, "torn-batch");
+        assertEquals("https://example.com/first", recovered.findFullUrl("first"));
+        assertNull(recovered.findFullUrl("b1"), "no part of the batch survives");
+        assertNull(recovered.findFullUrl("b2"));
+        assertNull(recovered.findFullUrl("b3"));
+        recovered.insertAll(List.of(entity("b1", "https://example.com/b1"), entity("b2", "https://example.com/b2")));
+        assertEquals("https://example.com/b2", open(1 << 16, "torn-batch").findFullUrl("b2"));
+    }
+
+    private MappedShortUrlStore open(int segmentSize) throws IOException {
+        return open(segmentSize, "store");
+    }
+
+    private MappedShortUrlStore open(int segmentSize, String subdirectory) throws IOException {
+        StorageConfig config = new StorageConfig();
+        config.setMmapDirectory(directory.resolve(subdirectory).toString());
+        config.setMmapSegmentSize(segmentSize);
+        config.setMmapExpectedKeys(16);
+        return new MappedShortUrlStore(config);
+    }
+
+    private static int recordLength(String key, String fullUrl) {
+        return 1 + Integer.BYTES + 1 + key.length() + 1 + ("hash-" + key).length() + Integer.BYTES + fullUrl.length();
+    }
+}
@@ -0,0 +1,218 @@
+package de.telran.urlshortener.store;
+
+import de.telran.urlshortener.entity.ShortUrlEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@link ShortUrlStore} contract; every backend runs it through a subclass that provides
+ * an empty store.
+ */
+abstract class ShortUrlStoreConformanceTest {
+
+    protected abstract ShortUrlStore store();
+
+    @Test
+    void findsInsertedMappingsByKeyAndDigest() {
+        store().insert(entity("abc123", "https://example.com/a"));
+        store().insertAll(List.of(entity("def456", "https://example.com/b"), entity("ghi789", "https://example.com/c")));
+
+        assertEquals("https://example.com/a", store().findFullUrl("abc123"));
+        assertEquals("https://example.com/c", store().findFullUrl("ghi789"));
+        assertEquals("def456", store().findKeyByFullUrlHash("hash-def456"));
+        assertNull(store().findFullUrl("nope00"));
+        assertNull(store().findKeyByFullUrlHash("hash-nope00"));
+    }
+
+    @Test
+    void findsKeysForManyDigestsAtOnce() {
+        List<ShortUrlEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            entities.add(entity("key" + i, "https://example.com/" + i));
+        }
+        store().insertAll(entities);
+
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 1200; i += 2) {
+            hashes.add("hash-key" + i);
+        }
+        hashes.add("hash-missing");
+        Map<String, String> keys = store().findKeysByFullUrlHashes(hashes);
+        assertEquals(600, keys.size());
+        assertEquals("key1198", keys.get("hash-key1198"));
+        assertFalse(keys.containsKey("hash-missing"));
+    }
+
+    @Test
+    void rejectsDuplicateKeysAndDigests() {
+        store().insert(entity("abc123", "https://example.com/a"));
+
+        ShortUrlEntity sameKey = ShortUrlEntity.builder()
+                .key("abc123").fullUrl("https://example.com/other").fullUrlHash("hash-other").clickCount(0L).build();
+        assertThrows(DataIntegrityViolationException.class, () -> store().insert(sameKey));
+        ShortUrlEntity sameDigest = ShortUrlEntity.builder()
+                .key("zzz999").fullUrl("https://example.com/a").fullUrlHash("hash-abc123").clickCount(0L).build();
+        assertThrows(DataIntegrityViolationException.class, () -> store().insert(sameDigest));
+        assertNull(store().findFullUrl("zzz999"));
+        assertEquals("https://example.com/a", store().findFullUrl("abc123"));
+    }
+
+    @Test
+    void batchWithADuplicateStoresNothing() {
+        store().insert(entity("abc123", "https://example.com/a"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> store().insertAll(List.of(
+                entity("new001", "https://example.com/new"),
+                entity("abc123", "https://example.com/a"))));
+        assertNull(store().findFullUrl("new001"));
+        assertNull(store().findKeyByFullUrlHash("hash-new001"));
+    }
+
+    @Test
+    void appliesClickDeltasAndIgnoresUnknownKeys() {
+        store().insertAll(List.of(entity("abc123", "https://example.com/a"), entity("def456", "https://example.com/b")));
+
+        store().applyClickDeltas(List.of(Map.entry("abc123", 3L), Map.entry("unknown", 7L)));
+        store().applyClickDeltas(List.of(Map.entry("abc123", 2L), Map.entry("def456", 1L)));
+
+        Map<String, ShortUrlEntity> scanned = scan();
+        assertEquals(5L, scanned.get("abc123").getClickCount());
+        assertEquals(1L, scanned.get("def456").getClickCount());
+        assertFalse(scanned.containsKey("unknown"));
+    }
+
+    @Test
+    void scansEveryMappingAndKey() {
+        for (int i = 0; i < 300; i++) {
+            store().insert(entity("key" + i, "https://example.com/" + i));
+        }
+
+        Map<String, ShortUrlEntity> scanned = scan();
+        assertEquals(300, scanned.size());
+        ShortUrlEntity entity = scanned.get("key42");
+        assertEquals("https://example.com/42", entity.getFullUrl());
+        assertEquals("hash-key42", entity.getFullUrlHash());
+        assertEquals(0L, entity.getClickCount());
+
+        Set<String> keys = new HashSet<>();
+        store().forEachKey(keys::add);
+        assertEquals(scanned.keySet(), keys);
+    }
+
+    @Test
+    void expiredLinksAreNotFoundBeforeTheyArePurged() {
+        Instant later = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        store().insertAll(List.of(entity("abc123", "https://example.com/a"),
+                expiring("exp001", "https://example.com/gone", Instant.now().minusSeconds(1)),
+                expiring("exp002", "https://example.com/later", later)));
+
+        assertEquals(new ShortUrlStore.Link("https://example.com/a", null), store().findLink("abc123"));
+        assertEquals(new ShortUrlStore.Link("https://example.com/later", later), store().findLink("exp002"));
+        assertNull(store().findLink("exp001"));
+        assertNull(store().findFullUrl("exp001"));
+        assertEquals(later, scan().get("exp002").getExpiresAt());
+        assertNull(scan().get("exp002").getFullUrlHash(), "expiring links have no digest");
+    }
+
+    @Test
+    void deletesExpiredLinksInBoundedBatches() {
+        Instant past = Instant.now().minusSeconds(60);
+        List<ShortUrlEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            entities.add(expiring("exp00" + i, "https://example.com/" + i, past.plusSeconds(i)));
+        }
+        entities.add(expiring("live01", "https://example.com/live", Instant.now().plusSeconds(3600)));
+        entities.add(entity("abc123", "https://example.com/a"));
+        store().insertAll(entities);
+
+        Instant now = Instant.now();
+        List<String> first = store().deleteExpired(now, 3);
+        assertEquals(List.of("exp000", "exp001", "exp002"), first, "oldest first");
+        assertEquals(List.of("exp003", "exp004"), store().deleteExpired(now, 3));
+        assertEquals(List.of(), store().deleteExpired(now, 3));
+
+        Set<String> keys = new HashSet<>();
+        store().forEachKey(keys::add);
+        assertEquals(Set.of("live01", "abc123"), keys);
+        assertEquals(2, scan().size());
+
+        // a purged key is free again
+        store().insert(entity("exp000", "https://example.com/reused"));
+        assertEquals("https://example.com/reused", store().findFullUrl("exp000"));
+    }
+
+    @Test
+    void findsTheMostClickedLiveLinks() {
+        Instant later = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MILLIS);
+        store().insertAll(List.of(entity("low001", "https://example.com/low"),
+                entity("top001", "https://example.com/top"),
+                entity("mid001", "https://example.com/mid"),
+                expiring("exp001", "https://example.com/gone", Instant.now().minusSeconds(1)),
+                expiring("exp002", "https://example.com/later", later)));
+        store().applyClickDeltas(List.of(Map.entry("low001", 1L), Map.entry("top001", 50L), Map.entry("mid001", 10L),
+                Map.entry("exp001", 100L), Map.entry("exp002", 20L)));
+
+        Map<String, ShortUrlStore.Link> top = store().findMostClicked(3);
+        assertEquals(List.of("top001", "exp002", "mid001"), new ArrayList<>(top.keySet()), "most clicked first, expired skipped");
+        assertEquals(new ShortUrlStore.Link("https://example.com/top", null), top.get("top001"));
+        assertEquals(new ShortUrlStore.Link("https://example.com/later", later), top.get("exp002"));
+        assertEquals(4, store().findMostClicked(10).size());
+        assertTrue(store().findMostClicked(0).isEmpty());
+    }
+
+    @Test
+    void lookupsRunConcurrentlyWithInserts() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    store().insert(entity("key" + i, "https://example.com/" + i));
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String url = store().findFullUrl("key" + i);
+                        if (url != null) {
+                            assertEquals("https://example.com/" + i, url);
+                        }
+                    }
+                }));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals("https://example.com/" + i, store().findFullUrl("key" + i));
+        }
+    }
+
+    protected static ShortUrlEntity entity(String key, String fullUrl) {
+        return ShortUrlEntity.builder().key(key).fullUrl(fullUrl).fullUrlHash("hash-" + key).clickCount(0L).build();
+    }
+
+    protected static ShortUrlEntity expiring(String key, String fullUrl, Instant expiresAt) {
+        return ShortUrlEntity.builder().key(key).fullUrl(fullUrl).clickCount(0L).expiresAt(expiresAt).build();
+    }
+
+    private Map<String, ShortUrlEntity> scan() {
+        Map<String, ShortUrlEntity> entities = new HashMap<>();
+        store().scan(entity -> entities.put(entity.getKey(), entity));
+        return entities;
+    }
+}
@@ -0,0 +1,42 @@
+package de.telran.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyEncoderTest {
+
+    private static final String BASE62 = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    @Test
+    void scrambledKeysAreUniqueAndFixedLength() {
+        KeyEncoder encoder = new KeyEncoder(BASE62, 6, true, 42L);
+        Set<String> keys = new HashSet<>();
+        for (long id = 0; id < 100_000; id++) {
+            String key = encoder.encode(id);
+            assertEquals(6, key.length());
+            assertTrue(keys.add(key), "duplicate key " + key);
+        }
+    }
+
+    @Test
+    void scrambleIsABijectionOnTheKeySpace() {
+        KeyEncoder encoder = new KeyEncoder("abc", 4, true, 7L);
+        Set<String> keys = new HashSet<>();
+        for (long id = 0; id < 81; id++) {
+            keys.add(encoder.encode(id));
+        }
+        assertEquals(81, keys.size());
+    }
+
+    @Test
+    void idsBeyondTheKeySpaceGetLongerKeys() {
+        KeyEncoder encoder = new KeyEncoder("ab", 3, false, 0L);
+        assertEquals("aaa", encoder.encode(0));
+        assertEquals("bbb", encoder.encode(7));
+        assertEquals("baaa", encoder.encode(8));
+    }
+}
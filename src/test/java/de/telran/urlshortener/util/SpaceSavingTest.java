@@ -0,0 +1,64 @@
+package de.telran.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void findsHeavyKeysInALongTail() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            // five hot keys take half of the traffic, the rest is spread over 100k keys
+            String key = random.nextBoolean()
+                    ? "hot" + random.nextInt(5)
+                    : "cold" + random.nextInt(100_000);
+            summary.add(key, 1);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(5);
+        assertEquals(5, top.size());
+        for (SpaceSaving.Entry entry : top) {
+            assertTrue(entry.key().startsWith("hot"), entry.key());
+            long count = exact.get(entry.key());
+            assertTrue(entry.count() >= count, "count is an upper bound");
+            assertTrue(entry.count() - entry.error() <= count, "count minus error is a lower bound");
+        }
+        assertEquals(50, summary.size());
+    }
+
+    @Test
+    void topIsSortedAndScaleKeepsOrder() {
+        SpaceSaving summary = new SpaceSaving(10);
+        summary.add("a", 3);
+        summary.add("b", 7);
+        summary.add("c", 5);
+        summary.scale(0.5);
+
+        List<SpaceSaving.Entry> top = summary.top(10);
+        assertEquals(List.of("b", "c", "a"), top.stream().map(SpaceSaving.Entry::key).toList());
+        assertEquals(3.5, top.get(0).count(), 1e-9);
+        assertEquals(List.of("b"), summary.top(1).stream().map(SpaceSaving.Entry::key).toList());
+    }
+
+    @Test
+    void newKeyInheritsTheSmallestCountAsError() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a", 10);
+        summary.add("b", 4);
+        summary.add("c", 1);
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+        assertEquals("a", top.get(0).key());
+        assertEquals(new SpaceSaving.Entry("c", 5, 4), top.get(1));
+    }
+}
@@ -0,0 +1,85 @@
+package de.telran.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void itemsComeDueOnTheirTickAcrossLevels() {
+        // 4 slots of 10 ms: level 0 covers 40 ms, level 1 160 ms, level 2 640 ms
+        TimingWheel<String> wheel = new TimingWheel<>(10, 4, 0);
+        assertTrue(wheel.add("near", 25));
+        assertTrue(wheel.add("level1", 130));
+        assertTrue(wheel.add("level2", 500));
+        assertTrue(wheel.add("far", 100_000));
+        assertFalse(wheel.add("past", 0));
+        assertEquals(4, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(29, expired::add);
+        assertEquals(List.of(), expired, "never before the deadline");
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("near"), expired);
+        wheel.advance(129, expired::add);
+        assertEquals(List.of("near"), expired);
+        wheel.advance(130, expired::add);
+        assertEquals(List.of("near", "level1"), expired);
+        wheel.advance(500, expired::add);
+        assertEquals(List.of("near", "level1", "level2"), expired);
+        wheel.advance(99_999, expired::add);
+        assertEquals(3, expired.size());
+        wheel.advance(100_000, expired::add);
+        assertEquals(List.of("near", "level1", "level2", "far"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void matchesASortedScheduleForRandomDeadlines() {
+        Random random = new Random(7);
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 16, 1_000);
+        long[] deadlines = new long[5_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = 1_001 + random.nextInt(200_000);
+            assertTrue(wheel.add(i, deadlines[i]));
+        }
+
+        long now = 1_000;
+        long previousDeadline = 0;
+        int expiredCount = 0;
+        while (expiredCount < deadlines.length) {
+            now += 1 + random.nextInt(500);
+            long clock = now;
+            List<Integer> expired = new ArrayList<>();
+            wheel.advance(clock, expired::add);
+            for (int item : expired) {
+                assertTrue(deadlines[item] <= clock, "item " + item + " came due early");
+                assertTrue(deadlines[item] > clock - 501, "item " + item + " came due late");
+                assertTrue(deadlines[item] >= previousDeadline, "items come due in deadline order");
+                previousDeadline = deadlines[item];
+            }
+            expiredCount += expired.size();
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemsAddedLaterUseTheCurrentClock() {
+        TimingWheel<String> wheel = new TimingWheel<>(1_000, 8, 0);
+        wheel.advance(50_500, item -> fail("nothing scheduled yet"));
+
+        assertFalse(wheel.add("passed", 50_000));
+        assertTrue(wheel.add("next", 51_000));
+        assertTrue(wheel.add("later", 60_001));
+        List<String> expired = new ArrayList<>();
+        wheel.advance(51_000, expired::add);
+        assertEquals(List.of("next"), expired);
+        wheel.advance(60_999, expired::add);
+        assertEquals(List.of("next"), expired, "rounded up to the next tick");
+        wheel.advance(61_000, expired::add);
+        assertEquals(List.of("next", "later"), expired);
+    }
+}
@@ -0,0 +1,26 @@
+package de.telran.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlNormalizerTest {
+
+    @Test
+    void normalizesSchemeHostPortAndEmptyPath() {
+        assertEquals("https://example.com/", UrlNormalizer.normalize(" HTTPS://Example.COM:443 "));
+        assertEquals("http://example.com:8080/a?b=C#D", UrlNormalizer.normalize("http://EXAMPLE.com:8080/a?b=C#D"));
+    }
+
+    @Test
+    void keepsPathCaseAndUnparseableInput() {
+        assertNotEquals(UrlNormalizer.digest("https://example.com/A"), UrlNormalizer.digest("https://example.com/a"));
+        assertEquals("not a url", UrlNormalizer.normalize("not a url"));
+    }
+
+    @Test
+    void digestIsFixedWidth() {
+        assertEquals(64, UrlNormalizer.digest("https://example.com").length());
+        assertEquals(UrlNormalizer.digest("https://example.com"), UrlNormalizer.digest("https://EXAMPLE.com:443/"));
+    }
+}